@@ -36,6 +36,7 @@
  *    - Conducted end-to-end system testing and validation
 **/
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 
 import model.User;
@@ -45,6 +46,8 @@ import service.BookDatabase;
 import service.RecommendationEngine;
 import service.SearchService;
 import service.ReportGenerator;
+import service.SessionManager;
+import service.TrendingWindow;
 
 public class Main 
 {
@@ -53,6 +56,8 @@ public class Main
     private RecommendationEngine recommendationEngine;  // Generates personalized recommendations
     private SearchService searchService;      // Provides keyword-based book search
     private ReportGenerator reportGenerator; // Produces various analytical reports
+    private SessionManager sessionManager;   // Issues and expires login session tokens
+    private String strSessionToken;          // Token of the current user session (null if none)
     private User objCurrentUser;             // Holds currently logged-in user (null if none)
     private boolean isAdmin = false;         // Flag for administrator session
     private Scanner input = new Scanner(System.in);  // Reads input from command line
@@ -106,7 +111,9 @@ public class Main
         recommendationEngine = new RecommendationEngine(bookDatabase);
         searchService        = new SearchService(bookDatabase);
         reportGenerator      = new ReportGenerator(bookDatabase, userManager);
+        sessionManager       = new SessionManager();
         objCurrentUser       = null;
+        strSessionToken      = null;
         isAdmin              = false;
     }
 
@@ -149,6 +156,8 @@ public class Main
                 break;
                 
             case 4:
+                recommendationEngine.flush();  // Write pending book changes
+                userManager.flush();           // Finish any user log compaction
                 System.out.println("\nThank you for using our system. Goodbye!");
                 System.exit(0);
         }
@@ -180,8 +189,9 @@ public class Main
         } 
         else 
         {
-            objCurrentUser = objUser;
-            isAdmin        = false;
+            objCurrentUser  = objUser;
+            strSessionToken = sessionManager.createSession(objUser);
+            isAdmin         = false;
             System.out.println("\nWelcome back " + strUsername + "!");
         }
     }
@@ -202,7 +212,7 @@ public class Main
         {
             System.out.println("\nRegistration successful!");
         } 
-        else 
+        else if (userManager.findUserByUsername(strUsername) != null)  // Otherwise the busy reason was already shown
         {
             System.out.println("\nRegistration failed: Username already exists");
         }
@@ -236,6 +246,14 @@ public class Main
      */
     private void showUserMenu() 
     {
+        if (sessionManager.validateSession(strSessionToken) == null)  // Idle too long
+        {
+            System.out.println("\nYour session has expired. Please log in again.");
+            objCurrentUser  = null;
+            strSessionToken = null;
+            return;
+        }
+
         System.out.println("\n--- User Menu ---");
         System.out.println("1. Search Books");
         System.out.println("2. Popular Books");
@@ -274,7 +292,10 @@ public class Main
                 break;
                 
             case 7:
-                objCurrentUser = null;
+                recommendationEngine.flush();  // Write pending book changes
+                sessionManager.invalidateSession(strSessionToken);
+                objCurrentUser  = null;
+                strSessionToken = null;
                 System.out.println("\nSuccessfully logged out");
         }
     }
@@ -353,6 +374,17 @@ public class Main
         {
             System.out.println("  - " + book);
         }
+
+        ArrayList<Book> trendingBookList = bookDatabase.getTrendingBooks(TrendingWindow.DAY, 5);
+
+        if (!trendingBookList.isEmpty())  // Only once something was borrowed today
+        {
+            System.out.println("\nTrending Today");
+            for (Book book : trendingBookList) 
+            {
+                System.out.println("  - " + book);
+            }
+        }
     }
 
 
@@ -365,9 +397,51 @@ public class Main
             objCurrentUser.getStrUsername(), 5);
 
         System.out.println("\nRecommended For You:");
-        for (Book book : recommendationList) 
+        for (int intI = 0; intI < recommendationList.size(); intI++) 
         {
-            System.out.println("  - " + book);
+            System.out.println("  " + (intI + 1) + ". " + recommendationList.get(intI));
+        }
+
+        List<Book> similarReaderList = recommendationEngine.generateSimilarReaderRecommendations(
+            objCurrentUser.getStrUsername(), 3);
+
+        if (!similarReaderList.isEmpty())  // Only shown once similar readers exist
+        {
+            System.out.println("\nReaders Like You Also Enjoyed:");
+            for (Book book : similarReaderList) 
+            {
+                System.out.println("  - " + book);
+            }
+        }
+
+        if (!recommendationList.isEmpty())  // Let the user open one of the recommendations
+        {
+            int intChoice = readInt("\nView a recommended book (1-" + recommendationList.size() + ", 0 to go back): ",
+                                    0, recommendationList.size());
+
+            if (intChoice > 0) 
+            {
+                showRecommendedBook(recommendationList.get(intChoice - 1));
+            }
+        }
+    }
+
+
+    /**
+     * Shows one recommended book and offers to borrow it
+     * Opening the book is fed back to the recommendation engine as a click
+     * @param book - the book picked from the recommendations
+     */
+    private void showRecommendedBook(Book book) 
+    {
+        recommendationEngine.recordClick(objCurrentUser.getStrUsername(), book.getStrId());
+
+        System.out.println("\nBook Details:");
+        System.out.println("  " + book);
+
+        if ("y".equalsIgnoreCase(readInputLine("Borrow this book? (y/n): ")))
+        {
+            borrowBookById(book.getStrId());
         }
     }
 
@@ -377,8 +451,17 @@ public class Main
      */
     private void borrowBook() 
     {
-        String strBookId = readInputLine("Enter book ID to borrow: ");
-        if (bookDatabase.borrowBook(strBookId)) 
+        borrowBookById(readInputLine("Enter book ID to borrow: "));
+    }
+
+
+    /**
+     * Borrows a book for the current user and asks for a rating
+     * @param strBookId - the book's unique identifier
+     */
+    private void borrowBookById(String strBookId) 
+    {
+        if (bookDatabase.borrowBook(objCurrentUser.getStrUsername(), strBookId)) 
         {
             int intRating = readInt("Rate this book (1-5): ", 1, 5);
             recommendationEngine.addRating(
@@ -0,0 +1,72 @@
+/**
+ * File: BorrowEvent.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Represents one borrow of a book by a user at a point in time
+ *  - Used to persist and replay implicit feedback across sessions
+**/
+package model;
+
+public class BorrowEvent
+{
+    private String strUserId;      // ID of the user who borrowed
+    private String strBookId;      // ID of the borrowed book
+    private long   longTimestamp;  // When the borrow happened (epoch milliseconds)
+
+
+    /**
+     * Constructs a new BorrowEvent
+     * @param strUserId - ID of the user who borrowed
+     * @param strBookId - ID of the borrowed book
+     * @param longTimestamp - when the borrow happened (epoch milliseconds)
+     */
+    public BorrowEvent(String strUserId, String strBookId, long longTimestamp)
+    {
+        this.strUserId     = strUserId;
+        this.strBookId     = strBookId;
+        this.longTimestamp = longTimestamp;
+    }
+
+
+    /**
+     * Gets the ID of the user who borrowed
+     * @return - the user ID
+     */
+    public String getStrUserId()
+    {
+        return strUserId;
+    }
+
+
+    /**
+     * Gets the ID of the borrowed book
+     * @return - the book ID
+     */
+    public String getStrBookId()
+    {
+        return strBookId;
+    }
+
+
+    /**
+     * Gets when the borrow happened
+     * @return - the timestamp (epoch milliseconds)
+     */
+    public long getLongTimestamp()
+    {
+        return longTimestamp;
+    }
+
+
+    /**
+     * Returns a string representation of this BorrowEvent
+     * @return formatted string
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("BorrowEvent[user=%s, book=%s, time=%d]", strUserId, strBookId, longTimestamp);
+    }
+}
@@ -6,7 +6,7 @@
  * Description: 
  *  - Represents a single user rating for a book
  *  - Validates that the rating is between 1 and 5 upon construction
- *  - Exposes getters for user ID, book ID, and the rating value
+ *  - Exposes getters for user ID, book ID, the rating value and when it was given
  *  - Provides a formatted toString for display
  *
  * Work Log (Lucas Wu):
@@ -27,27 +27,42 @@ package model;
 
 public class Rating 
 {
-    private String strUserId;    // ID of the user who rated
-    private String strBookId;    // ID of the book being rated
-    private int    intRating;    // Rating value (1–5)
+    private String strUserId;      // ID of the user who rated
+    private String strBookId;      // ID of the book being rated
+    private int    intRating;      // Rating value (1–5)
+    private long   longTimestamp;  // When the rating was given (epoch milliseconds)
 
 
     /**
-     * Constructs a new Rating instance
+     * Constructs a new Rating instance given now
      * @param strUserId - ID of the user who rated
      * @param strBookId - ID of the book being rated
      * @param intRating - Rating value (1–5)
      */
     public Rating(String strUserId, String strBookId, int intRating) 
+    {
+        this(strUserId, strBookId, intRating, System.currentTimeMillis());
+    }
+
+
+    /**
+     * Constructs a new Rating instance given at a specific time
+     * @param strUserId - ID of the user who rated
+     * @param strBookId - ID of the book being rated
+     * @param intRating - Rating value (1–5)
+     * @param longTimestamp - when the rating was given (epoch milliseconds)
+     */
+    public Rating(String strUserId, String strBookId, int intRating, long longTimestamp) 
     {
         if (intRating < 1 || intRating > 5)  // Verify rating range
         {
             throw new IllegalArgumentException("Rating must be between 1 and 5");
         }
 
-        this.strUserId = strUserId;
-        this.strBookId = strBookId;
-        this.intRating = intRating;
+        this.strUserId     = strUserId;
+        this.strBookId     = strBookId;
+        this.intRating     = intRating;
+        this.longTimestamp = longTimestamp;
     }
 
     /**
@@ -80,6 +95,16 @@ public class Rating
     }
 
 
+    /**
+     * Gets when the rating was given
+     * @return - the timestamp (epoch milliseconds)
+     */
+    public long getLongTimestamp() 
+    {
+        return longTimestamp;
+    }
+
+
     /**
      * Returns a string representation of this Rating
      * @return formatted string
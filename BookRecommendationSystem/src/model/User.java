@@ -30,10 +30,12 @@
  *        - Authentication and validation methods**/
 package model;
 
+import util.PasswordHasher;
+
 public class User 
 {
     private String strUsername;    // User's unique username
-    private String strPassword;    // User's password
+    private String strPassword;    // User's password hash (plain text for unmigrated accounts)
     private String strSecurityQ;   // Security question text
     private String strSecurityA;   // Security question answer
     private String strPreferences; // User's preference string
@@ -127,13 +129,14 @@ public class User
 
 
     /**
-     * Authenticates the user by comparing input password
+     * Authenticates the user by checking the input password against the stored
+     * salted hash (or plain-text password for accounts not yet migrated)
      * @param strInputPassword - the password provided for authentication
      * @return - true if passwords match; false otherwise
      */
     public boolean authenticate(String strInputPassword) 
     {
-        return strPassword.equals(strInputPassword);  // Verify exact match
+        return PasswordHasher.verify(strInputPassword, strPassword);  // Constant-time check
     }
 
 
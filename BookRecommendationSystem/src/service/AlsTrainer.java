@@ -0,0 +1,351 @@
+/**
+ * File: AlsTrainer.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Offline trainer for an explicit-feedback matrix factorization model
+ *  - Uses alternating least squares with weighted-lambda regularization
+ *  - Solves every user (then every book) row independently in parallel on all cores
+ *  - Keeps factors in primitive float arrays and per-thread solver buffers
+ *  - Reports training time and RMSE on a held-out split when run from the command line
+**/
+package service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import model.Rating;
+import util.FileUtils;
+import util.RatingLog;
+
+public class AlsTrainer
+{
+    private int    intRank;        // Number of latent factors
+    private double dblLambda;      // Regularization strength
+    private int    intIterations;  // Number of alternating sweeps
+    private long   longSeed;       // Seed for factor initialization
+
+
+    /**
+     * Constructs a trainer with the given hyperparameters
+     * @param intRank - number of latent factors
+     * @param dblLambda - regularization strength
+     * @param intIterations - number of alternating sweeps
+     * @param longSeed - seed for factor initialization
+     * @throws IllegalArgumentException if rank or iterations are less than 1 or lambda is negative
+     */
+    public AlsTrainer(int intRank, double dblLambda, int intIterations, long longSeed)
+    {
+        if (intRank < 1 || intIterations < 1 || dblLambda < 0.0)  // Validate hyperparameters
+        {
+            throw new IllegalArgumentException("Rank and iterations must be at least 1 and lambda non-negative");
+        }
+
+        this.intRank       = intRank;
+        this.dblLambda     = dblLambda;
+        this.intIterations = intIterations;
+        this.longSeed      = longSeed;
+    }
+
+
+    /**
+     * Trains a model on the given ratings
+     * @param ratingList - the training ratings
+     * @return - the trained model
+     */
+    public MatrixFactorizationModel train(List<Rating> ratingList)
+    {
+        Map<String, Integer> mapOrdinalByUserId = new HashMap<String, Integer>();  // User ID → ordinal
+        Map<String, Integer> mapOrdinalByBookId = new HashMap<String, Integer>();  // Book ID → ordinal
+        List<String> strUserIdList = new ArrayList<String>();
+        List<String> strBookIdList = new ArrayList<String>();
+
+        int[]   intUserArr  = new int[ratingList.size()];    // Rating → user ordinal
+        int[]   intBookArr  = new int[ratingList.size()];    // Rating → book ordinal
+        float[] fltValueArr = new float[ratingList.size()];  // Rating → value
+        double  dblSum      = 0.0;                           // Sum of all ratings
+
+        for (int intI = 0; intI < ratingList.size(); intI++)  // Assign dense ordinals
+        {
+            Rating rating = ratingList.get(intI);
+            intUserArr[intI]  = ordinalOf(rating.getStrUserId(), mapOrdinalByUserId, strUserIdList);
+            intBookArr[intI]  = ordinalOf(rating.getStrBookId(), mapOrdinalByBookId, strBookIdList);
+            fltValueArr[intI] = rating.getIntRating();
+            dblSum           += rating.getIntRating();
+        }
+
+        int intUserCount = strUserIdList.size();
+        int intBookCount = strBookIdList.size();
+
+        CompressedRows userRows = CompressedRows.of(intUserArr, intBookArr, fltValueArr, intUserCount);  // User → books
+        CompressedRows bookRows = CompressedRows.of(intBookArr, intUserArr, fltValueArr, intBookCount);  // Book → users
+
+        float[] fltUserFactorArr = new float[intUserCount * intRank];
+        float[] fltBookFactorArr = new float[intBookCount * intRank];
+
+        double dblMean  = ratingList.isEmpty() ? 0.0 : dblSum / ratingList.size();
+        double dblScale = Math.sqrt(dblMean / intRank);  // Initial dot products start near the mean
+        Random random   = new Random(longSeed);
+
+        for (int intI = 0; intI < fltBookFactorArr.length; intI++)  // Random book factors
+        {
+            fltBookFactorArr[intI] = (float) (dblScale * (0.5 + random.nextDouble()));
+        }
+
+        for (int intIter = 1; intIter <= intIterations; intIter++)
+        {
+            long longStart = System.nanoTime();  // Sweep timer
+
+            solveRows(userRows, fltBookFactorArr, fltUserFactorArr);  // Fix books, solve users
+            solveRows(bookRows, fltUserFactorArr, fltBookFactorArr);  // Fix users, solve books
+
+            System.out.println(String.format(
+                "ALS iteration %d/%d finished in %d ms",
+                intIter, intIterations, (System.nanoTime() - longStart) / 1000000
+            ));
+        }
+
+        return new MatrixFactorizationModel(intRank,
+            strUserIdList.toArray(new String[0]), strBookIdList.toArray(new String[0]),
+            fltUserFactorArr, fltBookFactorArr);
+    }
+
+
+    /**
+     * Solves the regularized least squares problem for every row in parallel
+     * @param rows - the rows to solve (users or books) with their observed ratings
+     * @param fltFixedArr - the fixed factors of the other side
+     * @param fltTargetArr - the factors being solved, overwritten in place
+     */
+    private void solveRows(CompressedRows rows, float[] fltFixedArr, float[] fltTargetArr)
+    {
+        int intRowCount = rows.intOffsetArr.length - 1;
+        ThreadLocal<double[][]> bufferLocal = ThreadLocal.withInitial(
+            () -> new double[][] { new double[intRank * intRank], new double[intRank] });  // Gram matrix, rhs
+
+        IntStream.range(0, intRowCount).parallel().forEach(intRow ->
+        {
+            double[][] dblBufArr  = bufferLocal.get();
+            double[]   dblGramArr = dblBufArr[0];
+            double[]   dblRhsArr  = dblBufArr[1];
+            int        intCount   = rows.rowLength(intRow);
+
+            Arrays.fill(dblGramArr, 0.0);
+            Arrays.fill(dblRhsArr, 0.0);
+
+            for (int intP = rows.intOffsetArr[intRow]; intP < rows.intOffsetArr[intRow + 1]; intP++)
+            {
+                int   intBase  = rows.intColumnArr[intP] * intRank;
+                float fltValue = rows.fltValueArr[intP];
+
+                for (int intA = 0; intA < intRank; intA++)  // Accumulate Y^T Y (lower triangle) and Y^T r
+                {
+                    double dblYa = fltFixedArr[intBase + intA];
+                    dblRhsArr[intA] += fltValue * dblYa;
+
+                    for (int intB = 0; intB <= intA; intB++)
+                    {
+                        dblGramArr[intA * intRank + intB] += dblYa * fltFixedArr[intBase + intB];
+                    }
+                }
+            }
+
+            for (int intA = 0; intA < intRank; intA++)  // Weighted-lambda regularization
+            {
+                dblGramArr[intA * intRank + intA] += dblLambda * Math.max(1, intCount);
+            }
+
+            choleskySolve(dblGramArr, dblRhsArr, intRank);
+
+            for (int intA = 0; intA < intRank; intA++)
+            {
+                fltTargetArr[intRow * intRank + intA] = (float) dblRhsArr[intA];
+            }
+        });
+    }
+
+
+    /**
+     * Solves A x = b in place for a symmetric positive definite A (lower triangle used)
+     * @param dblAArr - the matrix, row-major; overwritten with its Cholesky factor
+     * @param dblBArr - the right-hand side; overwritten with the solution
+     * @param intN - the dimension
+     */
+    private static void choleskySolve(double[] dblAArr, double[] dblBArr, int intN)
+    {
+        for (int intJ = 0; intJ < intN; intJ++)  // Factor A = L L^T
+        {
+            double dblDiag = dblAArr[intJ * intN + intJ];
+
+            for (int intK = 0; intK < intJ; intK++)
+            {
+                dblDiag -= dblAArr[intJ * intN + intK] * dblAArr[intJ * intN + intK];
+            }
+
+            dblDiag = Math.sqrt(Math.max(dblDiag, 1e-12));  // Guard against round-off
+            dblAArr[intJ * intN + intJ] = dblDiag;
+
+            for (int intI = intJ + 1; intI < intN; intI++)
+            {
+                double dblSum = dblAArr[intI * intN + intJ];
+
+                for (int intK = 0; intK < intJ; intK++)
+                {
+                    dblSum -= dblAArr[intI * intN + intK] * dblAArr[intJ * intN + intK];
+                }
+
+                dblAArr[intI * intN + intJ] = dblSum / dblDiag;
+            }
+        }
+
+        for (int intI = 0; intI < intN; intI++)  // Forward substitution: L y = b
+        {
+            double dblSum = dblBArr[intI];
+
+            for (int intK = 0; intK < intI; intK++)
+            {
+                dblSum -= dblAArr[intI * intN + intK] * dblBArr[intK];
+            }
+
+            dblBArr[intI] = dblSum / dblAArr[intI * intN + intI];
+        }
+
+        for (int intI = intN - 1; intI >= 0; intI--)  // Back substitution: L^T x = y
+        {
+            double dblSum = dblBArr[intI];
+
+            for (int intK = intI + 1; intK < intN; intK++)
+            {
+                dblSum -= dblAArr[intK * intN + intI] * dblBArr[intK];
+            }
+
+            dblBArr[intI] = dblSum / dblAArr[intI * intN + intI];
+        }
+    }
+
+
+    /**
+     * Computes root mean squared error of a model on a set of ratings
+     * Ratings whose user or book is unknown to the model are skipped
+     * @param model - the model to evaluate
+     * @param ratingList - the ratings to predict
+     * @return - the RMSE, or NaN if no rating could be predicted
+     */
+    public static double computeRmse(MatrixFactorizationModel model, List<Rating> ratingList)
+    {
+        double dblSumSq = 0.0;  // Sum of squared errors
+        int    intCount = 0;    // Number of predicted ratings
+
+        for (Rating rating : ratingList)
+        {
+            double dblPredicted = model.predict(rating.getStrUserId(), rating.getStrBookId());
+
+            if (Double.isNaN(dblPredicted))  // Unknown user or book
+            {
+                continue;
+            }
+
+            double dblError = Math.min(5.0, Math.max(1.0, dblPredicted)) - rating.getIntRating();
+            dblSumSq += dblError * dblError;
+            intCount++;
+        }
+
+        return (intCount == 0) ? Double.NaN : Math.sqrt(dblSumSq / intCount);
+    }
+
+
+    /**
+     * Looks up or assigns the dense ordinal of an ID
+     */
+    private static int ordinalOf(String strId, Map<String, Integer> mapOrdinalById, List<String> strIdList)
+    {
+        Integer intOrdinal = mapOrdinalById.get(strId);
+
+        if (intOrdinal == null)  // First occurrence
+        {
+            intOrdinal = strIdList.size();
+            mapOrdinalById.put(strId, intOrdinal);
+            strIdList.add(strId);
+        }
+
+        return intOrdinal;
+    }
+
+
+    /**
+     * Loads the current ratings: the ratings.csv snapshot plus any logged ratings not yet compacted into it
+     * @return - one rating per (user, book), the latest recorded
+     */
+    private static List<Rating> loadCurrentRatings()
+    {
+        RatingLog ratingLog = new RatingLog(FileUtils.getRatingFilePath(), FileUtils.getRatingLogFilePath());
+        Map<String, Rating> mapRatingByKey = new LinkedHashMap<String, Rating>();  // "user,book" → latest rating
+
+        for (Rating rating : ratingLog.load())  // Later events win, as in RecommendationEngine
+        {
+            mapRatingByKey.put(rating.getStrUserId() + "," + rating.getStrBookId(), rating);
+        }
+
+        ratingLog.close();
+
+        return new ArrayList<Rating>(mapRatingByKey.values());
+    }
+
+
+    /**
+     * Command-line entry point: evaluates on a 90/10 split of the current ratings, then
+     * trains on all ratings and saves the model for RecommendationEngine
+     * @param args - optional: rank, lambda, iterations
+     */
+    public static void main(String[] args)
+    {
+        int    intRank       = (args.length > 0) ? Integer.parseInt(args[0]) : 10;
+        double dblLambda     = (args.length > 1) ? Double.parseDouble(args[1]) : 0.1;
+        int    intIterations = (args.length > 2) ? Integer.parseInt(args[2]) : 10;
+
+        List<Rating> ratingList = loadCurrentRatings();  // Snapshot plus uncompacted log
+
+        if (ratingList.size() < 10)  // Too little data to split meaningfully
+        {
+            System.out.println("Not enough ratings to train a factorization model: " + ratingList.size());
+            return;
+        }
+
+        List<Rating> shuffledList = new ArrayList<Rating>(ratingList);
+        Collections.shuffle(shuffledList, new Random(7));
+
+        int          intSplit  = shuffledList.size() * 9 / 10;  // 90% train, 10% held out
+        List<Rating> trainList = shuffledList.subList(0, intSplit);
+        List<Rating> testList  = shuffledList.subList(intSplit, shuffledList.size());
+
+        AlsTrainer trainer   = new AlsTrainer(intRank, dblLambda, intIterations, 42L);
+        long       longStart = System.nanoTime();  // Training timer
+
+        MatrixFactorizationModel model = trainer.train(trainList);
+
+        System.out.println(String.format(
+            "Trained rank-%d model on %d ratings using %d cores in %d ms",
+            intRank, trainList.size(), Runtime.getRuntime().availableProcessors(),
+            (System.nanoTime() - longStart) / 1000000
+        ));
+        System.out.println(String.format(
+            "RMSE → train: %.4f, held-out: %.4f (%d held-out ratings)",
+            computeRmse(model, trainList), computeRmse(model, testList), testList.size()
+        ));
+
+        model = trainer.train(ratingList);  // Final model uses every rating
+
+        if (model.save(FileUtils.getFactorModelFilePath()))
+        {
+            System.out.println("Saved factorization model to " + FileUtils.getFactorModelFilePath());
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/**
+ * File: BatchRecommendationJob.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Precomputes recommendation lists for every registered user (e.g. nightly)
+ *  - Fans users out across a fork-join pool sized to the available cores
+ *  - Shares one read-only catalog snapshot between all workers
+ *  - Writes results to a compact lookup file read by RecommendationEngine
+ *  - Reports throughput in users per second and peak heap usage
+ *  - Intended to run while no ratings are being added (offline)
+**/
+package service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import model.Book;
+import model.User;
+import util.FileUtils;
+
+public class BatchRecommendationJob
+{
+    private RecommendationEngine recommendationEngine;  // Scoring logic
+    private UserManager userManager;                    // Source of users
+    private BookDatabase bookDatabase;                  // Source of the catalog snapshot
+
+
+    /**
+     * Constructs the batch job with its dependencies
+     * @param recommendationEngine - engine used to score each user
+     * @param userManager - provides the users to precompute
+     * @param bookDatabase - provides the catalog snapshot
+     */
+    public BatchRecommendationJob(RecommendationEngine recommendationEngine, UserManager userManager,
+                                  BookDatabase bookDatabase)
+    {
+        this.recommendationEngine = recommendationEngine;
+        this.userManager          = userManager;
+        this.bookDatabase         = bookDatabase;
+    }
+
+
+    /**
+     * Precomputes recommendations for all users and saves them
+     * @param intCount - number of recommendations per user
+     * @param intParallelism - number of worker threads
+     * @param strOutputPath - lookup file to write
+     * @return - the precomputed store
+     * @throws IllegalArgumentException if intCount or intParallelism is less than 1
+     */
+    public PrecomputedRecommendations run(int intCount, int intParallelism, String strOutputPath)
+    {
+        if (intCount < 1 || intParallelism < 1)  // Validate arguments
+        {
+            throw new IllegalArgumentException("Count and parallelism must be at least 1");
+        }
+
+        List<Book> catalogList = bookDatabase.getAllBooks();  // One snapshot shared by all workers
+        List<String> strUserIdList = new ArrayList<String>();
+
+        for (User user : userManager.getAllUsers())
+        {
+            strUserIdList.add(user.getStrUsername());
+        }
+
+        PrecomputedRecommendations store = new PrecomputedRecommendations();
+        AtomicInteger intDone = new AtomicInteger();  // Completed users
+        resetPeakHeapUsage();
+
+        long longStart = System.nanoTime();  // Batch timer
+        ForkJoinPool pool = new ForkJoinPool(intParallelism);
+
+        try
+        {
+            pool.submit(() -> strUserIdList.parallelStream().forEach(strUserId ->
+            {
+                List<Book>  bookList     = recommendationEngine.computeRecommendations(strUserId, intCount, catalogList);
+                String[]    strBookIdArr = new String[bookList.size()];
+
+                for (int intI = 0; intI < strBookIdArr.length; intI++)
+                {
+                    strBookIdArr[intI] = bookList.get(intI).getStrId();
+                }
+
+                store.put(strUserId, strBookIdArr);
+                intDone.incrementAndGet();
+            })).get();
+        }
+        catch (InterruptedException e)  // Stop early but keep what was computed
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException e)  // A worker failed
+        {
+            System.out.println("Batch recommendation failed: " + e.getCause());
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+
+        double dblSeconds = (System.nanoTime() - longStart) / 1e9;
+
+        System.out.println(String.format(
+            "Precomputed %d users on %d threads in %.2f s (%.1f users/s), peak heap %.1f MB",
+            intDone.get(), intParallelism, dblSeconds,
+            intDone.get() / Math.max(dblSeconds, 1e-9), getPeakHeapUsage() / (1024.0 * 1024.0)
+        ));
+
+        if (store.save(strOutputPath))
+        {
+            System.out.println("Saved precomputed recommendations to " + strOutputPath);
+        }
+
+        return store;
+    }
+
+
+    /**
+     * Resets the peak usage counters of all heap memory pools
+     */
+    private static void resetPeakHeapUsage()
+    {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+        {
+            if (pool.getType() == MemoryType.HEAP)
+            {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+
+    /**
+     * Sums the peak usage of all heap memory pools since the last reset
+     * @return - peak heap bytes
+     */
+    private static long getPeakHeapUsage()
+    {
+        long longPeak = 0;
+
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+        {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null)
+            {
+                longPeak += pool.getPeakUsage().getUsed();
+            }
+        }
+
+        return longPeak;
+    }
+
+
+    /**
+     * Command-line entry point for the nightly run
+     * @param args - optional: recommendations per user, worker threads
+     */
+    public static void main(String[] args)
+    {
+        int intCount       = (args.length > 0) ? Integer.parseInt(args[0]) : 10;
+        int intParallelism = (args.length > 1) ? Integer.parseInt(args[1])
+                                               : Runtime.getRuntime().availableProcessors();
+
+        BookDatabase         bookDatabase         = new BookDatabase();
+        UserManager          userManager          = new UserManager();
+        RecommendationEngine recommendationEngine = new RecommendationEngine(bookDatabase);
+
+        new BatchRecommendationJob(recommendationEngine, userManager, bookDatabase)
+            .run(intCount, intParallelism, FileUtils.getPrecomputedRecommendationFilePath());
+    }
+}
@@ -5,10 +5,18 @@
  *
  * Description:
  *  - Loads book records from CSV at initialization
- *  - Provides lookup by ID, full-text search by title/author
- *  - Retrieves popular books sorted by borrow count
+ *  - Provides hash-indexed lookup by ID, full-text search by title/author
+ *  - Retrieves popular books sorted by borrow count (ranking cached until the next borrow)
+ *  - Indexes books by genre and by author for candidate generation
  *  - Finds similar books by genre or author
  *  - Supports borrowing and returning, persisting changes to CSV
+ *  - Records who borrowed what as implicit feedback (BorrowHistory), persisted
+ *    to an append-only borrow log and replayed at startup
+ *  - Batches deferred book changes (e.g. average ratings) into a single write
+ *  - Keeps catalog statistics up to date on borrow and rating changes
+ *  - Keeps a columnar copy of scoring fields for whole-catalog scoring
+ *  - Feeds every borrow into a TrendingTracker for hour/day/week trending lists,
+ *    rebuilt at startup from the borrow log
  * 
  * Work Log:
  *  2025-08-18 (Lucas Wu): 
@@ -35,13 +43,35 @@ package service;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
 
 import model.Book;
+import model.BorrowEvent;
+import util.BorrowLog;
 import util.FileUtils;
 
 public class BookDatabase 
 {
     private ArrayList<Book> bookList;  // List of all books
+    private Map<String, Book> mapBookById;  // Upper-cased book ID → book
+    private Map<String, List<Book>> mapBooksByGenre;   // Genre → books in catalog order
+    private Map<String, List<Book>> mapBooksByAuthor;  // Author → books in catalog order
+    private volatile ArrayList<Book> bookListByPopularity;  // Cached popularity ranking; null when stale
+    private CatalogStatistics catalogStatistics;  // Incrementally maintained catalog aggregates
+    private CatalogColumns catalogColumns;        // Columnar scoring fields, updated in place
+    private BorrowHistory borrowHistory;          // Per-user borrow events
+    private BorrowLog borrowLog;                  // Append-only persistence for user borrows
+    private TrendingTracker trendingTracker;      // Recent borrows per sliding time window
+    private List<BiConsumer<String, Book>> borrowListenerList =
+        new CopyOnWriteArrayList<BiConsumer<String, Book>>();  // Notified with the borrower's ID and book
+
+    private static final int intFlushBatchSize = 50;  // Pending changes that trigger a write
+    private int intPendingChangeCount = 0;             // Changes not yet written to CSV
 
     /**
      * Constructs and initializes the book database
@@ -59,7 +89,50 @@ public class BookDatabase
     private void loadBooks() 
     {
         bookList = FileUtils.loadBooksFromCSV();  // Load records
+        catalogStatistics = new CatalogStatistics();
+        mapBookById = new HashMap<String, Book>();
+        mapBooksByGenre  = new HashMap<String, List<Book>>();
+        mapBooksByAuthor = new HashMap<String, List<Book>>();
+
+        for (Book book : bookList)  // Seed statistics and indexes once
+        {
+            catalogStatistics.addBook(book);
+            mapBookById.put(book.getStrId().toUpperCase(Locale.ROOT), book);
+            mapBooksByGenre.computeIfAbsent(book.getStrGenre(), k -> new ArrayList<Book>()).add(book);
+            mapBooksByAuthor.computeIfAbsent(book.getStrAuthor(), k -> new ArrayList<Book>()).add(book);
+        }
+
+        catalogColumns  = new CatalogColumns(bookList);
+        borrowHistory   = new BorrowHistory(catalogColumns);
+        trendingTracker = new TrendingTracker(catalogColumns);
+
         System.out.println("Loaded " + bookList.size() + " books from database");
+        loadBorrows();
+    }
+
+
+    /**
+     * Replays the borrow snapshot and log into the borrow history and the trending
+     * windows, keeping each event's time so only recent borrows count as trending
+     */
+    private void loadBorrows() 
+    {
+        borrowLog = new BorrowLog(FileUtils.getBorrowFilePath(), FileUtils.getBorrowLogFilePath());
+        int intCount = 0;  // Events replayed
+
+        for (BorrowEvent event : borrowLog.load())
+        {
+            Book book = findBookById(event.getStrBookId());
+
+            if (book != null)  // Skip books no longer in the catalog
+            {
+                borrowHistory.record(event.getStrUserId(), book, event.getLongTimestamp());
+                trendingTracker.record(book, event.getLongTimestamp());  // Old events fall outside every window
+                intCount++;
+            }
+        }
+
+        System.out.println("Loaded " + intCount + " borrows");  // Debug info
     }
 
 
@@ -70,15 +143,12 @@ public class BookDatabase
      */
     public Book findBookById(String strBookId) 
     {
-        for (Book book : bookList) 
+        if (strBookId == null)  // Nothing to look up
         {
-            if (book.getStrId().equalsIgnoreCase(strBookId))  // ID match
-            {
-                return book;
-            }
+            return null;
         }
 
-        return null;
+        return mapBookById.get(strBookId.toUpperCase(Locale.ROOT));  // Case-insensitive ID match
     }
 
 
@@ -112,22 +182,65 @@ public class BookDatabase
      */
     public ArrayList<Book> getPopularBooks(int intCount) 
     {
-        ArrayList<Book> bookListSorted = new ArrayList<Book>(bookList);  // Working copy
+        ArrayList<Book> bookListSorted = bookListByPopularity;  // Cached ranking
 
-        Collections.sort(bookListSorted, new Comparator<Book>() 
+        if (bookListSorted == null)  // Re-rank only after borrows changed counts
         {
-            @Override
-            public int compare(Book book1, Book book2) 
+            bookListSorted = new ArrayList<Book>(bookList);  // Working copy
+
+            Collections.sort(bookListSorted, new Comparator<Book>() 
             {
-                return book2.getIntBorrowCount() - book1.getIntBorrowCount();  // Descending
-            }
-        });
+                @Override
+                public int compare(Book book1, Book book2) 
+                {
+                    return book2.getIntBorrowCount() - book1.getIntBorrowCount();  // Descending
+                }
+            });
+
+            bookListByPopularity = bookListSorted;
+        }
 
         int intSubEnd = Math.min(intCount, bookListSorted.size());  // Ensure bounds
         return new ArrayList<Book>(bookListSorted.subList(0, intSubEnd));
     }
 
 
+    /**
+     * Retrieves the books borrowed most within a recent time window
+     * @param window - the time window to look back over (hour, day or week)
+     * @param intCount - number of books to return
+     * @return - trending books, most borrowed first; empty if nothing was borrowed in the window
+     */
+    public ArrayList<Book> getTrendingBooks(TrendingWindow window, int intCount) 
+    {
+        return trendingTracker.getTrendingBooks(window, intCount, System.currentTimeMillis());
+    }
+
+
+    /**
+     * Retrieves all books in a genre using the genre index
+     * @param strGenre - the genre to look up
+     * @return - read-only list of books in catalog order; empty if none
+     */
+    public List<Book> getBooksByGenre(String strGenre) 
+    {
+        List<Book> listResult = mapBooksByGenre.get(strGenre);
+        return (listResult == null) ? Collections.<Book>emptyList() : Collections.unmodifiableList(listResult);
+    }
+
+
+    /**
+     * Retrieves all books by an author using the author index
+     * @param strAuthor - the author to look up
+     * @return - read-only list of books in catalog order; empty if none
+     */
+    public List<Book> getBooksByAuthor(String strAuthor) 
+    {
+        List<Book> listResult = mapBooksByAuthor.get(strAuthor);
+        return (listResult == null) ? Collections.<Book>emptyList() : Collections.unmodifiableList(listResult);
+    }
+
+
     /**
      * Finds books similar by genre or author to the reference book
      * @param bookRefObj - reference Book for similarity
@@ -177,12 +290,79 @@ public class BookDatabase
 
         book.setAvailable(false);                             // Mark as lent
         book.setIntBorrowCount(book.getIntBorrowCount() + 1); // Increment count
+        catalogStatistics.recordBorrow(book);                 // Keep aggregates current
+        catalogColumns.refresh(book);                         // Keep scoring columns current
+        trendingTracker.record(book, System.currentTimeMillis());  // Count in recent windows
+        bookListByPopularity = null;                          // Ranking changed
 
         saveBooks();  // Persist update
         return true;
     }
 
 
+    /**
+     * Borrows a book on behalf of a user and records the borrow as implicit feedback
+     * @param strUserId - the borrowing user's unique identifier
+     * @param strBookId - ID of the book to borrow
+     * @return - true if borrow succeeds; false otherwise
+     */
+    public boolean borrowBook(String strUserId, String strBookId) 
+    {
+        if (!borrowBook(strBookId))  // Unavailable or unknown
+        {
+            return false;
+        }
+
+        Book book     = findBookById(strBookId);
+        long longTime = System.currentTimeMillis();
+
+        borrowHistory.record(strUserId, book, longTime);
+        borrowLog.append(new BorrowEvent(strUserId, book.getStrId(), longTime));  // Persist as a single log line
+
+        if (borrowLog.needsCompaction())  // Fold the log into a new snapshot of the retained events
+        {
+            borrowLog.compactAsync(borrowHistory.getRetainedEvents());
+        }
+
+        for (BiConsumer<String, Book> listener : borrowListenerList)  // e.g. drop the user's cached recommendations
+        {
+            listener.accept(strUserId, book);
+        }
+
+        return true;
+    }
+
+
+    /**
+     * Registers a callback run after each user borrow
+     * @param listener - receives the borrowing user's ID and the borrowed Book
+     */
+    public void addBorrowListener(BiConsumer<String, Book> listener) 
+    {
+        borrowListenerList.add(listener);
+    }
+
+
+    /**
+     * Gets the per-user borrow history
+     * @return - the BorrowHistory for this database
+     */
+    public BorrowHistory getBorrowHistory() 
+    {
+        return borrowHistory;
+    }
+
+
+    /**
+     * Gets the trending tracker fed by every borrow
+     * @return - the TrendingTracker for this database
+     */
+    public TrendingTracker getTrendingTracker() 
+    {
+        return trendingTracker;
+    }
+
+
     /**
      * Returns a borrowed book and saves the updated state
      * @param strBookId ID of the book to return
@@ -199,12 +379,81 @@ public class BookDatabase
     }
 
 
+    /**
+     * Records a new or replaced rating in the catalog statistics
+     * @param intOldRating - the replaced rating value, or 0 if this is a new rating
+     * @param intNewRating - the new rating value (1–5)
+     */
+    public void recordRatingChange(int intOldRating, int intNewRating) 
+    {
+        catalogStatistics.recordRating(intOldRating, intNewRating);
+    }
+
+
+    /**
+     * Gets the incrementally maintained catalog statistics
+     * @return - the CatalogStatistics for this database
+     */
+    public CatalogStatistics getCatalogStatistics() 
+    {
+        return catalogStatistics;
+    }
+
+
+    /**
+     * Gets the columnar copy of the catalog used for whole-catalog scoring
+     * @return - the CatalogColumns for this database
+     */
+    public CatalogColumns getCatalogColumns() 
+    {
+        return catalogColumns;
+    }
+
+
+    /**
+     * Records a change to a book's average rating
+     * Updates the scoring columns now and saves with the next batched write
+     * @param book - the Book whose average rating was set
+     */
+    public void recordAverageRatingChange(Book book) 
+    {
+        catalogColumns.refresh(book);
+        markBooksDirty();
+    }
+
+
     /**
      * Saves all book records back to CSV
      */
     public void saveBooks() 
     {
         FileUtils.saveBooksToCSV(bookList);  // Write to storage
+        intPendingChangeCount = 0;           // Everything is now persisted
+    }
+
+
+    /**
+     * Records an in-memory book change whose write can be deferred
+     * Book data is saved once enough changes have accumulated
+     */
+    public void markBooksDirty() 
+    {
+        if (++intPendingChangeCount >= intFlushBatchSize)  // Batch is full
+        {
+            saveBooks();
+        }
+    }
+
+
+    /**
+     * Saves book records only if deferred changes are pending
+     */
+    public void flushBooks() 
+    {
+        if (intPendingChangeCount > 0)  // Something to write
+        {
+            saveBooks();
+        }
     }
 
 
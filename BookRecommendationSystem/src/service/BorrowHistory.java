@@ -0,0 +1,154 @@
+/**
+ * File: BorrowHistory.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Records which books each user borrowed, as implicit preference feedback
+ *  - Keeps each user's most recent borrows as catalog column indexes in a
+ *    small ring buffer rather than as Book or String references
+ *  - Remembers when each borrow happened, so the retained events can be
+ *    written back to the borrow log snapshot and replayed on the next start
+**/
+package service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import model.Book;
+import model.BorrowEvent;
+
+public class BorrowHistory
+{
+    private static final int intMaxEventsPerUser = 256;  // Borrows remembered per user
+
+    private CatalogColumns catalogColumns;  // Maps books to compact column indexes
+    private Map<String, UserBorrows> mapBorrowsByUser = new ConcurrentHashMap<String, UserBorrows>();  // User → history
+
+
+    /**
+     * Constructs an empty history
+     * @param catalogColumns - the catalog columns whose indexes identify books
+     */
+    public BorrowHistory(CatalogColumns catalogColumns)
+    {
+        this.catalogColumns = catalogColumns;
+    }
+
+
+    /**
+     * Records that a user borrowed a book
+     * @param strUserId - the user's unique identifier
+     * @param book - the borrowed Book
+     * @param longTimestamp - when the borrow happened (epoch milliseconds)
+     */
+    public void record(String strUserId, Book book, long longTimestamp)
+    {
+        int intIndex = catalogColumns.indexOf(book);
+
+        if (intIndex < 0)  // Not part of the indexed catalog
+        {
+            return;
+        }
+
+        mapBorrowsByUser.computeIfAbsent(strUserId, k -> new UserBorrows()).add(intIndex, longTimestamp);
+    }
+
+
+    /**
+     * Gets the IDs of the books a user borrowed most recently
+     * @param strUserId - the user's unique identifier
+     * @return - book IDs, oldest first (duplicates kept); empty if none
+     */
+    public List<String> getRecentBookIds(String strUserId)
+    {
+        UserBorrows borrows = mapBorrowsByUser.get(strUserId);
+
+        if (borrows == null)  // Never borrowed
+        {
+            return Collections.<String>emptyList();
+        }
+
+        List<String> strBookIdList = new ArrayList<String>(borrows.intCount);  // Results
+        int intStart = borrows.intNext - borrows.intCount;
+
+        for (int intI = 0; intI < borrows.intCount; intI++)
+        {
+            int intIndex = borrows.intBookIndexArr[Math.floorMod(intStart + intI, intMaxEventsPerUser)];
+            strBookIdList.add(catalogColumns.getBook(intIndex).getStrId());
+        }
+
+        return strBookIdList;
+    }
+
+
+    /**
+     * Gets every remembered borrow, each user's oldest first
+     * Older borrows already evicted from a user's ring are not included
+     * @return - the retained events
+     */
+    public List<BorrowEvent> getRetainedEvents()
+    {
+        List<BorrowEvent> eventList = new ArrayList<BorrowEvent>();  // Results
+
+        for (Map.Entry<String, UserBorrows> entry : mapBorrowsByUser.entrySet())
+        {
+            UserBorrows borrows = entry.getValue();
+
+            int intStart = borrows.intNext - borrows.intCount;
+
+            for (int intI = 0; intI < borrows.intCount; intI++)
+            {
+                int intPos = Math.floorMod(intStart + intI, intMaxEventsPerUser);
+                eventList.add(new BorrowEvent(entry.getKey(),
+                    catalogColumns.getBook(borrows.intBookIndexArr[intPos]).getStrId(),
+                    borrows.longTimeArr[intPos]));
+            }
+        }
+
+        return eventList;
+    }
+
+
+    /**
+     * Checks whether a user has borrowed anything
+     * @param strUserId - the user's unique identifier
+     * @return - true if at least one borrow is remembered
+     */
+    public boolean hasBorrows(String strUserId)
+    {
+        return mapBorrowsByUser.containsKey(strUserId);
+    }
+
+
+    /**
+     * Inner class holding one user's ring buffer
+     */
+    private static class UserBorrows
+    {
+        final int[]  intBookIndexArr = new int[intMaxEventsPerUser];   // Ring of column indexes
+        final long[] longTimeArr     = new long[intMaxEventsPerUser];  // Ring of borrow times
+        int intNext  = 0;  // Next ring position to write
+        int intCount = 0;  // Events currently in the ring
+
+
+        /**
+         * Appends a borrow, evicting the oldest once the ring is full
+         */
+        void add(int intIndex, long longTimestamp)
+        {
+            if (intCount == intMaxEventsPerUser)  // Overwrite the oldest event
+            {
+                intCount--;
+            }
+
+            intBookIndexArr[intNext] = intIndex;
+            longTimeArr[intNext]     = longTimestamp;
+            intNext = (intNext + 1) % intMaxEventsPerUser;
+            intCount++;
+        }
+    }
+}
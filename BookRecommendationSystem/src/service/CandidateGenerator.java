@@ -0,0 +1,27 @@
+/**
+ * File: CandidateGenerator.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - A cheap first-stage source of candidate books for RecommendationPipeline
+ *  - Implementations should stop as soon as CandidatePool.offer returns false
+**/
+package service;
+
+interface CandidateGenerator
+{
+    /**
+     * Gets the stage name used in latency reports
+     * @return - the stage name
+     */
+    String getStrName();
+
+
+    /**
+     * Adds candidates for a request to the pool
+     * @param request - the request being served
+     * @param pool - the pool receiving candidates
+     */
+    void generate(CandidateRequest request, CandidatePool pool);
+}
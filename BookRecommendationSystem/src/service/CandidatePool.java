@@ -0,0 +1,147 @@
+/**
+ * File: CandidatePool.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Bounded, de-duplicated pool of candidate books for one request
+ *  - Rejects books the user already rated and books already in the pool
+ *  - Enforces both the overall pool size and the current stage's quota
+ *  - Closes once the request's deadline passes (checked every few offers)
+**/
+package service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import model.Book;
+
+class CandidatePool
+{
+    private static final int intDeadlineCheckMask = 31;  // Check the clock every 32 offers
+
+    private final int              intCapacity;     // Maximum pool size
+    private final Set<String>      ratedBookIdSet;  // IDs never admitted
+    private final CandidateRequest request;         // Request being served (deadline)
+    private final List<Book>       bookList;        // Candidates in admission order
+    private final Set<String>      idSet;           // IDs already admitted
+
+    private int     intStageQuota = 0;      // Remaining admissions for the current stage
+    private int     intOfferCount = 0;      // Offers seen, for spacing deadline checks
+    private boolean isCutShort    = false;  // True once the deadline stopped generation
+
+
+    /**
+     * Constructs an empty pool
+     * @param intCapacity - maximum number of candidates
+     * @param request - the request being served; its rated books are never admitted
+     */
+    CandidatePool(int intCapacity, CandidateRequest request)
+    {
+        this.intCapacity    = intCapacity;
+        this.ratedBookIdSet = request.ratedBookIdSet;
+        this.request        = request;
+        this.bookList       = new ArrayList<Book>(Math.min(intCapacity, 1024));
+        this.idSet          = new HashSet<String>();
+    }
+
+
+    /**
+     * Starts a new stage with its own admission quota
+     * @param intQuota - maximum number of books this stage may add
+     */
+    void beginStage(int intQuota)
+    {
+        intStageQuota = intQuota;
+    }
+
+
+    /**
+     * Offers a candidate to the pool
+     * @param book - the candidate book
+     * @return - false once the pool or the stage quota is full, so generators can stop early
+     */
+    boolean offer(Book book)
+    {
+        if (!hasRoom())  // Pool or stage exhausted
+        {
+            return false;
+        }
+
+        if ((++intOfferCount & intDeadlineCheckMask) == 0 && request.isPastDeadline())  // Out of time
+        {
+            markCutShort();
+            return false;
+        }
+
+        if (ratedBookIdSet.contains(book.getStrId()) || !idSet.add(book.getStrId()))  // Rated or duplicate
+        {
+            return true;
+        }
+
+        bookList.add(book);
+        intStageQuota--;
+        return hasRoom();
+    }
+
+
+    /**
+     * Checks whether the current stage may still add candidates
+     * @return - true if both the pool and the stage quota have room
+     */
+    boolean hasRoom()
+    {
+        return intStageQuota > 0 && bookList.size() < intCapacity && !isCutShort;
+    }
+
+
+    /**
+     * Records that the deadline stopped candidate generation and closes the pool
+     */
+    void markCutShort()
+    {
+        isCutShort = true;
+    }
+
+
+    /**
+     * Checks whether the deadline stopped candidate generation
+     * @return - true if a stage was skipped or interrupted
+     */
+    boolean isCutShort()
+    {
+        return isCutShort;
+    }
+
+
+    /**
+     * Gets how many more candidates the current stage may add
+     * @return - the smaller of the remaining stage quota and the remaining pool space
+     */
+    int remaining()
+    {
+        return isCutShort ? 0 : Math.max(0, Math.min(intStageQuota, intCapacity - bookList.size()));
+    }
+
+
+    /**
+     * Gets the number of candidates in the pool
+     * @return - the pool size
+     */
+    int size()
+    {
+        return bookList.size();
+    }
+
+
+    /**
+     * Gets the candidates in admission order
+     * @return - the candidate list (not a copy)
+     */
+    List<Book> getBooks()
+    {
+        return bookList;
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * File: CandidateRequest.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Carries everything candidate generators need to know about one request
+ *  - Built once per request by RecommendationEngine and shared by all stages
+ *  - Optionally carries a deadline that generators and ranking stop at
+**/
+package service;
+
+import java.util.List;
+import java.util.Set;
+
+import model.Book;
+import model.Rating;
+
+class CandidateRequest
+{
+    final String       strUserId;           // User being served
+    final List<Rating> userRatingList;      // User's ratings
+    final Set<String>  ratedBookIdSet;      // IDs the user already rated (never candidates)
+    final List<String> borrowedBookIdList;  // IDs the user recently borrowed (implicit feedback)
+    final String       strPrefGenre;        // User's preferred genre
+    final String       strPrefAuthor;       // User's preferred author
+    final List<Book>   catalogList;         // Read-only catalog snapshot
+    final double[]     dblWeightArr;        // Scoring weights {genre, author, rating, popularity}
+    final long         longDeadlineNanos;   // System.nanoTime() deadline, or Long.MAX_VALUE for none
+
+
+    /**
+     * Constructs a request description
+     * @param strUserId - the user's unique identifier
+     * @param userRatingList - the user's ratings
+     * @param ratedBookIdSet - IDs of books the user already rated
+     * @param borrowedBookIdList - IDs of books the user recently borrowed
+     * @param strPrefGenre - the user's preferred genre
+     * @param strPrefAuthor - the user's preferred author
+     * @param catalogList - read-only catalog snapshot
+     * @param dblWeightArr - scoring weights {genre, author, rating, popularity}
+     * @param longDeadlineNanos - System.nanoTime() value to stop at, or Long.MAX_VALUE for no deadline
+     */
+    CandidateRequest(String strUserId, List<Rating> userRatingList, Set<String> ratedBookIdSet,
+                     List<String> borrowedBookIdList, String strPrefGenre, String strPrefAuthor, List<Book> catalogList,
+                     double[] dblWeightArr, long longDeadlineNanos)
+    {
+        this.strUserId          = strUserId;
+        this.userRatingList     = userRatingList;
+        this.ratedBookIdSet     = ratedBookIdSet;
+        this.borrowedBookIdList = borrowedBookIdList;
+        this.strPrefGenre       = strPrefGenre;
+        this.strPrefAuthor      = strPrefAuthor;
+        this.catalogList        = catalogList;
+        this.dblWeightArr       = dblWeightArr;
+        this.longDeadlineNanos  = longDeadlineNanos;
+    }
+
+
+    /**
+     * Checks whether the request has a deadline
+     * @return - true if work should stop at longDeadlineNanos
+     */
+    boolean isDeadlineBound()
+    {
+        return longDeadlineNanos != Long.MAX_VALUE;
+    }
+
+
+    /**
+     * Gets the time left before the deadline
+     * @return - remaining nanoseconds (negative once past); Long.MAX_VALUE if there is no deadline
+     */
+    long getLongRemainingNanos()
+    {
+        return isDeadlineBound() ? longDeadlineNanos - System.nanoTime() : Long.MAX_VALUE;
+    }
+
+
+    /**
+     * Checks whether the deadline has passed
+     * @return - true if the request has a deadline and it has passed
+     */
+    boolean isPastDeadline()
+    {
+        return getLongRemainingNanos() <= 0;
+    }
+}
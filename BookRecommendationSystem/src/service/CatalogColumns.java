@@ -0,0 +1,203 @@
+/**
+ * File: CatalogColumns.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Columnar copy of the catalog fields used for content scoring: genre code,
+ *    author code, average rating and borrow count, one primitive array each
+ *  - Scores the whole catalog in a few straight-line passes over those arrays,
+ *    written without branches or calls so the JIT can compile them to SIMD
+ *  - Kept current in place by BookDatabase as books are borrowed and rated
+ *  - Scores are computed in float and match RecommendationEngine's double
+ *    scoring within 1e-6; results are only used to shortlist candidates,
+ *    which are then re-scored exactly
+**/
+package service;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import model.Book;
+
+public class CatalogColumns
+{
+    private final Book[]  bookArr;            // Column index → book
+    private final int[]   intGenreCodeArr;    // Column index → genre code
+    private final int[]   intAuthorCodeArr;   // Column index → author code
+    private final float[] fltAvgRatingArr;    // Column index → average rating
+    private final float[] fltBorrowCountArr;  // Column index → borrow count
+
+    private final IdDictionary genreDictionary  = new IdDictionary();  // Genre ↔ code
+    private final IdDictionary authorDictionary = new IdDictionary();  // Author ↔ code
+
+    private final Map<Book, Integer> mapIndexByBook = new IdentityHashMap<Book, Integer>();  // Book → column index
+
+
+    /**
+     * Builds the columns from a catalog
+     * @param bookList - all books, in catalog order
+     */
+    public CatalogColumns(List<Book> bookList)
+    {
+        int intSize = bookList.size();
+
+        bookArr           = bookList.toArray(new Book[0]);
+        intGenreCodeArr   = new int[intSize];
+        intAuthorCodeArr  = new int[intSize];
+        fltAvgRatingArr   = new float[intSize];
+        fltBorrowCountArr = new float[intSize];
+
+        for (int intI = 0; intI < intSize; intI++)
+        {
+            intGenreCodeArr[intI]  = genreDictionary.getOrAdd(bookArr[intI].getStrGenre());
+            intAuthorCodeArr[intI] = authorDictionary.getOrAdd(bookArr[intI].getStrAuthor());
+            mapIndexByBook.put(bookArr[intI], intI);
+            refresh(intI);
+        }
+    }
+
+
+    /**
+     * Copies a book's current average rating and borrow count into the columns
+     * @param book - a book from the catalog the columns were built from
+     */
+    public void refresh(Book book)
+    {
+        Integer intIndex = mapIndexByBook.get(book);
+
+        if (intIndex != null)  // Ignore books added after the columns were built
+        {
+            refresh(intIndex);
+        }
+    }
+
+
+    /**
+     * Copies the mutable fields of one column entry from its book
+     */
+    private void refresh(int intIndex)
+    {
+        fltAvgRatingArr[intIndex]   = (float) bookArr[intIndex].getDblAvgRating();
+        fltBorrowCountArr[intIndex] = bookArr[intIndex].getIntBorrowCount();
+    }
+
+
+    /**
+     * Gets the number of books in the columns
+     * @return - the book count
+     */
+    public int size()
+    {
+        return bookArr.length;
+    }
+
+
+    /**
+     * Gets the column index of a book
+     * @param book - a book from the catalog
+     * @return - its column index, or -1 if the book was added after the columns were built
+     */
+    public int indexOf(Book book)
+    {
+        Integer intIndex = mapIndexByBook.get(book);
+        return (intIndex == null) ? -1 : intIndex;
+    }
+
+
+    /**
+     * Gets the book at a column index
+     * @param intIndex - the column index
+     * @return - the book
+     */
+    public Book getBook(int intIndex)
+    {
+        return bookArr[intIndex];
+    }
+
+
+    /**
+     * Gets the genre code of the book at a column index
+     * @param intIndex - the column index
+     * @return - the genre code
+     */
+    public int getGenreCodeAt(int intIndex)
+    {
+        return intGenreCodeArr[intIndex];
+    }
+
+
+    /**
+     * Gets the author code of the book at a column index
+     * @param intIndex - the column index
+     * @return - the author code
+     */
+    public int getAuthorCodeAt(int intIndex)
+    {
+        return intAuthorCodeArr[intIndex];
+    }
+
+
+    /**
+     * Gets the code of a genre
+     * @param strGenre - the genre
+     * @return - the genre code, or -1 if no book has that genre
+     */
+    public int getGenreCode(String strGenre)
+    {
+        return genreDictionary.lookup(strGenre);
+    }
+
+
+    /**
+     * Gets the code of an author
+     * @param strAuthor - the author
+     * @return - the author code, or -1 if no book has that author
+     */
+    public int getAuthorCode(String strAuthor)
+    {
+        return authorDictionary.lookup(strAuthor);
+    }
+
+
+    /**
+     * Scores every book with the same formula as RecommendationEngine.calculateMatchScore
+     * @param intGenreCode - preferred genre code, or -1 for none
+     * @param intAuthorCode - preferred author code, or -1 for none
+     * @param fltGenreWeight - weight added on a genre match
+     * @param fltAuthorWeight - weight added on an author match
+     * @param fltRatingWeight - weight of the normalized average rating
+     * @param fltPopularityWeight - weight of the normalized borrow count
+     * @param intMaxBorrowCount - highest borrow count in the catalog (at least 1)
+     * @param fltScoreArr - receives the scores; must hold at least size() entries
+     */
+    public void score(int intGenreCode, int intAuthorCode, float fltGenreWeight, float fltAuthorWeight,
+                      float fltRatingWeight, float fltPopularityWeight, int intMaxBorrowCount, float[] fltScoreArr)
+    {
+        int   intSize    = bookArr.length;
+        float fltRatingK = fltRatingWeight / 5.0f;                   // Rating scale folded into the weight
+        float fltBorrowK = fltPopularityWeight / intMaxBorrowCount;  // Popularity scale folded into the weight
+
+        for (int intI = 0; intI < intSize; intI++)  // Pass 1: rating and popularity
+        {
+            fltScoreArr[intI] = fltAvgRatingArr[intI] * fltRatingK + fltBorrowCountArr[intI] * fltBorrowK;
+        }
+
+        if (intGenreCode >= 0)  // Pass 2: genre match as 1 - min(1, a ^ b), no branch per book
+        {
+            for (int intI = 0; intI < intSize; intI++)
+            {
+                fltScoreArr[intI] += fltGenreWeight * (1 - Math.min(1, intGenreCodeArr[intI] ^ intGenreCode));
+            }
+        }
+
+        if (intAuthorCode >= 0)  // Pass 3: author match
+        {
+            for (int intI = 0; intI < intSize; intI++)
+            {
+                fltScoreArr[intI] += fltAuthorWeight * (1 - Math.min(1, intAuthorCodeArr[intI] ^ intAuthorCode));
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * File: CatalogStatistics.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Holds aggregate statistics about the book catalog
+ *  - Tracks maximum and total borrow count across all books
+ *  - Tracks the distribution of submitted rating values (1–5)
+ *  - Tracks book and borrow counts per genre
+ *  - Updated incrementally by BookDatabase so every read is O(1)
+**/
+package service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import model.Book;
+
+public class CatalogStatistics
+{
+    private int  intBookCount         = 0;  // Number of books in the catalog
+    private int  intMaxBorrowCount    = 0;  // Highest borrow count of any book
+    private long longTotalBorrowCount = 0;  // Sum of all borrow counts
+    private long longRatingCount      = 0;  // Number of ratings submitted
+
+    private long[] longRatingCountArr = new long[6];  // Rating value (1–5) → count; index 0 unused
+
+    private Map<String, Integer> mapBookCountByGenre   = new HashMap<String, Integer>();  // Genre → books
+    private Map<String, Long>    mapBorrowCountByGenre = new HashMap<String, Long>();     // Genre → borrows
+
+
+    /**
+     * Adds a book to the statistics (used while loading the catalog)
+     * @param book - the Book being added
+     */
+    public void addBook(Book book)
+    {
+        intBookCount++;
+        intMaxBorrowCount     = Math.max(intMaxBorrowCount, book.getIntBorrowCount());
+        longTotalBorrowCount += book.getIntBorrowCount();
+
+        mapBookCountByGenre.merge(book.getStrGenre(), 1, Integer::sum);
+        mapBorrowCountByGenre.merge(book.getStrGenre(), (long) book.getIntBorrowCount(), Long::sum);
+    }
+
+
+    /**
+     * Records a single borrow of a book whose count has already been incremented
+     * @param book - the Book that was borrowed
+     */
+    public void recordBorrow(Book book)
+    {
+        intMaxBorrowCount = Math.max(intMaxBorrowCount, book.getIntBorrowCount());  // Counts only grow
+        longTotalBorrowCount++;
+
+        mapBorrowCountByGenre.merge(book.getStrGenre(), 1L, Long::sum);
+    }
+
+
+    /**
+     * Records a new or replaced rating in the rating distribution
+     * @param intOldRating - the replaced rating value, or 0 if this is a new rating
+     * @param intNewRating - the new rating value (1–5)
+     */
+    public void recordRating(int intOldRating, int intNewRating)
+    {
+        if (intOldRating >= 1 && intOldRating <= 5)  // Replacing an existing rating
+        {
+            longRatingCountArr[intOldRating]--;
+            longRatingCount--;
+        }
+
+        longRatingCountArr[intNewRating]++;
+        longRatingCount++;
+    }
+
+
+    /**
+     * Gets the number of books in the catalog
+     * @return - the book count
+     */
+    public int getIntBookCount()
+    {
+        return intBookCount;
+    }
+
+
+    /**
+     * Gets the highest borrow count of any book
+     * @return - the maximum borrow count (0 if the catalog is empty)
+     */
+    public int getIntMaxBorrowCount()
+    {
+        return intMaxBorrowCount;
+    }
+
+
+    /**
+     * Gets the sum of borrow counts across all books
+     * @return - the total borrow count
+     */
+    public long getLongTotalBorrowCount()
+    {
+        return longTotalBorrowCount;
+    }
+
+
+    /**
+     * Gets the total number of ratings submitted
+     * @return - the rating count
+     */
+    public long getLongRatingCount()
+    {
+        return longRatingCount;
+    }
+
+
+    /**
+     * Gets how many ratings have a given value
+     * @param intRating - the rating value (1–5)
+     * @return - number of ratings with that value
+     * @throws IllegalArgumentException if the rating value is out of range
+     */
+    public long getRatingCount(int intRating)
+    {
+        if (intRating < 1 || intRating > 5)  // Verify rating range
+        {
+            throw new IllegalArgumentException("Rating must be between 1 and 5");
+        }
+
+        return longRatingCountArr[intRating];
+    }
+
+
+    /**
+     * Gets the number of books in a genre
+     * @param strGenre - the genre to look up
+     * @return - number of books in that genre
+     */
+    public int getBookCountByGenre(String strGenre)
+    {
+        return mapBookCountByGenre.getOrDefault(strGenre, 0);
+    }
+
+
+    /**
+     * Gets the total number of borrows of books in a genre
+     * @param strGenre - the genre to look up
+     * @return - total borrow count for that genre
+     */
+    public long getBorrowCountByGenre(String strGenre)
+    {
+        return mapBorrowCountByGenre.getOrDefault(strGenre, 0L);
+    }
+
+
+    /**
+     * Returns a string summary of the statistics
+     * @return - formatted summary
+     */
+    @Override
+    public String toString()
+    {
+        return String.format(
+            "CatalogStatistics[books=%d, maxBorrows=%d, totalBorrows=%d, ratings=%d, genres=%d]",
+            intBookCount, intMaxBorrowCount, longTotalBorrowCount, longRatingCount, mapBookCountByGenre.size()
+        );
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * File: CollaborativeCandidateGenerator.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Candidates from item-item neighbors of the user's highly rated books,
+ *    then of the books they recently borrowed
+ *  - Uses the engine's current ItemSimilarityIndex only if one has been built
+**/
+package service;
+
+import java.util.function.Supplier;
+
+import model.Book;
+import model.Rating;
+
+class CollaborativeCandidateGenerator implements CandidateGenerator
+{
+    private static final int intMinPositiveRating = 4;  // Ratings at or above this seed neighbors
+
+    private Supplier<ItemSimilarityIndex> indexSupplier;  // Current index, or null if not built
+    private BookDatabase bookDatabase;                     // Resolves neighbor IDs to books
+
+
+    /**
+     * Constructs the generator
+     * @param indexSupplier - supplies the current similarity index (may supply null)
+     * @param bookDatabase - the BookDatabase resolving book IDs
+     */
+    CollaborativeCandidateGenerator(Supplier<ItemSimilarityIndex> indexSupplier, BookDatabase bookDatabase)
+    {
+        this.indexSupplier = indexSupplier;
+        this.bookDatabase  = bookDatabase;
+    }
+
+
+    @Override
+    public String getStrName()
+    {
+        return "collaborative";
+    }
+
+
+    @Override
+    public void generate(CandidateRequest request, CandidatePool pool)
+    {
+        ItemSimilarityIndex index = indexSupplier.get();
+
+        if (index == null)  // No index built yet
+        {
+            return;
+        }
+
+        for (Rating rating : request.userRatingList)
+        {
+            if (rating.getIntRating() < intMinPositiveRating)  // Only liked books seed
+            {
+                continue;
+            }
+
+            for (String strBookId : index.getNeighbors(rating.getStrBookId()))
+            {
+                Book book = bookDatabase.findBookById(strBookId);
+
+                if (book != null && !pool.offer(book))  // Stage or pool full
+                {
+                    return;
+                }
+            }
+        }
+
+        for (int intI = request.borrowedBookIdList.size() - 1; intI >= 0; intI--)  // Most recent borrows first
+        {
+            for (String strBookId : index.getNeighbors(request.borrowedBookIdList.get(intI)))
+            {
+                Book book = bookDatabase.findBookById(strBookId);
+
+                if (book != null && !pool.offer(book))  // Stage or pool full
+                {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * File: CompressedRows.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Compressed sparse row layout for rating matrices
+ *  - Row r holds its columns and values in [intOffsetArr[r], intOffsetArr[r + 1])
+ *  - Built from parallel (row, column, value) arrays with a counting sort
+ *  - Shared by ItemSimilarityIndex and AlsTrainer
+**/
+package service;
+
+class CompressedRows
+{
+    int[]   intOffsetArr;  // Row → start position (length rows + 1)
+    int[]   intColumnArr;  // Position → column ordinal
+    float[] fltValueArr;   // Position → value
+
+
+    /**
+     * Groups (row, column, value) triples by row using a counting sort
+     * @param intRowArr - row ordinal of each entry
+     * @param intColArr - column ordinal of each entry
+     * @param fltValArr - value of each entry
+     * @param intRowCount - number of rows
+     * @return - the compressed rows
+     */
+    static CompressedRows of(int[] intRowArr, int[] intColArr, float[] fltValArr, int intRowCount)
+    {
+        CompressedRows rows = new CompressedRows();
+        rows.intOffsetArr   = new int[intRowCount + 1];
+        rows.intColumnArr   = new int[intRowArr.length];
+        rows.fltValueArr    = new float[intRowArr.length];
+
+        for (int intRow : intRowArr)  // Count entries per row
+        {
+            rows.intOffsetArr[intRow + 1]++;
+        }
+
+        for (int intI = 0; intI < intRowCount; intI++)  // Prefix sums
+        {
+            rows.intOffsetArr[intI + 1] += rows.intOffsetArr[intI];
+        }
+
+        int[] intCursorArr = rows.intOffsetArr.clone();  // Next write position per row
+
+        for (int intI = 0; intI < intRowArr.length; intI++)
+        {
+            int intPos = intCursorArr[intRowArr[intI]]++;
+            rows.intColumnArr[intPos] = intColArr[intI];
+            rows.fltValueArr[intPos]  = fltValArr[intI];
+        }
+
+        return rows;
+    }
+
+
+    /**
+     * Gets the number of entries in a row
+     * @param intRow - the row ordinal
+     * @return - the row length
+     */
+    int rowLength(int intRow)
+    {
+        return intOffsetArr[intRow + 1] - intOffsetArr[intRow];
+    }
+}
@@ -0,0 +1,225 @@
+/**
+ * File: DecayedPreferences.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Per-user genre and author preference counters with exponential time decay,
+ *    so recent ratings and borrows outweigh old ones
+ *  - Uses forward decay: an event at time t adds w * e^(λ(t - L)) against a
+ *    per-user landmark L, so nothing has to be decayed as time passes and
+ *    every update is O(1)
+ *  - Since all of a user's counters share one landmark, their order never
+ *    changes with the clock; the favourite key is tracked as events arrive and
+ *    read in O(1) (removals that demote the favourite rescan that user's keys)
+**/
+package service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import model.Book;
+
+public class DecayedPreferences
+{
+    private static final double dblMaxExponent = 500.0;      // Rebase a landmark before e^x nears overflow
+    private static final String strUnknown     = "Unknown";  // Returned when a user has no signal
+
+    private final double dblDecayPerMilli;  // λ = ln 2 / half-life
+    private final Map<String, UserProfile> mapProfileByUser = new ConcurrentHashMap<String, UserProfile>();  // User → counters
+
+
+    /**
+     * Constructs empty preference counters
+     * @param intHalfLifeDays - days after which an event counts half as much
+     * @throws IllegalArgumentException if the half-life is less than 1 day
+     */
+    public DecayedPreferences(int intHalfLifeDays)
+    {
+        if (intHalfLifeDays < 1)  // Validate half-life
+        {
+            throw new IllegalArgumentException("Half-life must be at least one day");
+        }
+
+        this.dblDecayPerMilli = Math.log(2.0) / (intHalfLifeDays * 86400000.0);
+    }
+
+
+    /**
+     * Adds weight to a book's genre and author for a user
+     * @param strUserId - the user's unique identifier
+     * @param book - the Book the user liked or borrowed
+     * @param dblWeight - the event's weight at the time it happened
+     * @param longTimestamp - when it happened (epoch milliseconds)
+     */
+    public void add(String strUserId, Book book, double dblWeight, long longTimestamp)
+    {
+        mapProfileByUser.computeIfAbsent(strUserId, k -> new UserProfile(longTimestamp))
+                        .apply(book, dblWeight, longTimestamp);
+    }
+
+
+    /**
+     * Removes an earlier add, e.g. when a liked rating is replaced
+     * @param strUserId - the user's unique identifier
+     * @param book - the Book passed to the original add
+     * @param dblWeight - the weight passed to the original add
+     * @param longTimestamp - the timestamp passed to the original add
+     */
+    public void remove(String strUserId, Book book, double dblWeight, long longTimestamp)
+    {
+        UserProfile profile = mapProfileByUser.get(strUserId);
+
+        if (profile != null)
+        {
+            profile.apply(book, -dblWeight, longTimestamp);
+        }
+    }
+
+
+    /**
+     * Gets the genre with the most decayed weight for a user
+     * @param strUserId - the user's unique identifier
+     * @return - the preferred genre; "Unknown" if none
+     */
+    public String getPreferredGenre(String strUserId)
+    {
+        UserProfile profile = mapProfileByUser.get(strUserId);
+        return (profile == null) ? strUnknown : profile.genreCounter.getStrMaxKey();
+    }
+
+
+    /**
+     * Gets the author with the most decayed weight for a user
+     * @param strUserId - the user's unique identifier
+     * @return - the preferred author; "Unknown" if none
+     */
+    public String getPreferredAuthor(String strUserId)
+    {
+        UserProfile profile = mapProfileByUser.get(strUserId);
+        return (profile == null) ? strUnknown : profile.authorCounter.getStrMaxKey();
+    }
+
+
+    /**
+     * Inner class holding one user's landmark and counters
+     */
+    private class UserProfile
+    {
+        long longLandmark;  // L: time at which a weight counts at face value
+        final DecayedCounter genreCounter  = new DecayedCounter();  // Genre → scaled weight
+        final DecayedCounter authorCounter = new DecayedCounter();  // Author → scaled weight
+
+
+        UserProfile(long longLandmark)
+        {
+            this.longLandmark = longLandmark;
+        }
+
+
+        /**
+         * Adds a (possibly negative) weight at a time, rebasing the landmark if needed
+         */
+        synchronized void apply(Book book, double dblWeight, long longTimestamp)
+        {
+            double dblExponent = dblDecayPerMilli * (longTimestamp - longLandmark);
+
+            if (dblExponent > dblMaxExponent)  // Move the landmark forward
+            {
+                double dblFactor = Math.exp(-dblExponent);
+                genreCounter.scale(dblFactor);
+                authorCounter.scale(dblFactor);
+                longLandmark = longTimestamp;
+                dblExponent  = 0.0;
+            }
+
+            double dblScaled = dblWeight * Math.exp(dblExponent);
+            genreCounter.add(book.getStrGenre(), dblScaled);
+            authorCounter.add(book.getStrAuthor(), dblScaled);
+        }
+    }
+
+
+    /**
+     * Inner class mapping keys to scaled weights and tracking the largest one
+     */
+    private static class DecayedCounter
+    {
+        private final Map<String, Double> mapWeight = new HashMap<String, Double>();  // Key → scaled weight
+        private volatile String strMaxKey    = strUnknown;  // Key with the largest weight
+        private double          dblMaxWeight = 0.0;         // Its weight
+
+
+        /**
+         * Adds a scaled weight to a key and keeps the favourite current
+         */
+        void add(String strKey, double dblDelta)
+        {
+            double dblWeight = mapWeight.getOrDefault(strKey, 0.0) + dblDelta;
+
+            if (dblWeight <= Math.abs(dblDelta) * 1e-9)  // Nothing left but rounding error
+            {
+                mapWeight.remove(strKey);
+            }
+            else
+            {
+                mapWeight.put(strKey, dblWeight);
+            }
+
+            if (dblDelta >= 0.0)
+            {
+                if (dblWeight > dblMaxWeight || strKey.equals(strMaxKey))  // New or strengthened favourite
+                {
+                    dblMaxWeight = dblWeight;
+                    strMaxKey    = strKey;
+                }
+            }
+            else if (strKey.equals(strMaxKey))  // Favourite weakened: find the new one
+            {
+                rescan();
+            }
+        }
+
+
+        /**
+         * Multiplies every weight by a factor (order is unchanged)
+         */
+        void scale(double dblFactor)
+        {
+            mapWeight.replaceAll((k, dblValue) -> dblValue * dblFactor);
+            dblMaxWeight *= dblFactor;
+        }
+
+
+        /**
+         * Gets the key with the largest weight
+         */
+        String getStrMaxKey()
+        {
+            return strMaxKey;
+        }
+
+
+        /**
+         * Recomputes the favourite from all keys
+         */
+        private void rescan()
+        {
+            String strBest = strUnknown;
+            double dblBest = 0.0;
+
+            for (Map.Entry<String, Double> entry : mapWeight.entrySet())
+            {
+                if (entry.getValue() > dblBest)
+                {
+                    dblBest = entry.getValue();
+                    strBest = entry.getKey();
+                }
+            }
+
+            strMaxKey    = strBest;
+            dblMaxWeight = dblBest;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * File: DiversityReranker.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Post-processing stage that reorders a scored candidate pool by maximal
+ *    marginal relevance (MMR), so one author or genre does not fill the list
+ *  - Each pick maximizes (1 - weight) × relevance - weight × similarity to the
+ *    books already picked; relevance is the ranking score scaled to 0–1
+ *  - Similarity is 0.5 for a shared genre plus 0.5 for a shared author,
+ *    compared as integer codes from CatalogColumns, never as Strings
+ *  - Keeps each candidate's highest similarity to the picks so far, so
+ *    choosing K books costs O(K × candidates); nothing is re-scored
+ *  - Starts at a weight of 0.5, where a book sharing both genre and author
+ *    with a pick can no longer outrank one that shares neither; a weight of
+ *    0 leaves the ranking order unchanged
+**/
+package service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import model.Book;
+
+class DiversityReranker
+{
+    static final double dblDefaultDiversityWeight = 0.5;  // Weight used until one is set
+
+    private CatalogColumns  catalogColumns;                                  // Source of genre and author codes
+    private volatile double dblDiversityWeight = dblDefaultDiversityWeight;  // 0 = pure relevance, 1 = pure diversity
+
+
+    /**
+     * Constructs a reranker with the default diversity weight
+     * @param catalogColumns - the catalog columns providing feature codes
+     */
+    DiversityReranker(CatalogColumns catalogColumns)
+    {
+        this.catalogColumns = catalogColumns;
+    }
+
+
+    /**
+     * Sets how strongly similarity to already chosen books is penalized
+     * @param dblDiversityWeight - between 0 (off) and 1
+     * @throws IllegalArgumentException if the weight is outside 0–1
+     */
+    void setDblDiversityWeight(double dblDiversityWeight)
+    {
+        if (dblDiversityWeight < 0.0 || dblDiversityWeight > 1.0)  // Validate weight
+        {
+            throw new IllegalArgumentException("Diversity weight must be between 0 and 1");
+        }
+
+        this.dblDiversityWeight = dblDiversityWeight;
+    }
+
+
+    /**
+     * Gets the diversity weight
+     * @return - the weight (0 when off)
+     */
+    double getDblDiversityWeight()
+    {
+        return dblDiversityWeight;
+    }
+
+
+    /**
+     * Checks whether reranking changes anything
+     * @return - true if the diversity weight is above 0
+     */
+    boolean isEnabled()
+    {
+        return dblDiversityWeight > 0.0;
+    }
+
+
+    /**
+     * Picks a diverse top-K from scored candidates
+     * @param candidateList - candidates in pool order
+     * @param dblScoreArr - ranking score of each candidate
+     * @param intScored - number of leading candidates that were scored
+     * @param intCount - maximum number of books to return
+     * @return - chosen books in pick order; ties go to the earlier candidate
+     */
+    List<Book> rerank(List<Book> candidateList, double[] dblScoreArr, int intScored, int intCount)
+    {
+        double dblWeight = dblDiversityWeight;
+        int    intPicks  = Math.min(Math.max(0, intCount), intScored);
+
+        int[]     intGenreArr  = new int[intScored];      // Candidate → genre code
+        int[]     intAuthorArr = new int[intScored];      // Candidate → author code
+        double[]  dblRelArr    = new double[intScored];   // Candidate → weighted relevance
+        double[]  dblMaxSimArr = new double[intScored];   // Candidate → highest similarity to a pick
+        boolean[] isPickedArr  = new boolean[intScored];  // Candidate already chosen
+
+        double dblMin = Double.POSITIVE_INFINITY;
+        double dblMax = Double.NEGATIVE_INFINITY;
+
+        for (int intI = 0; intI < intScored; intI++)
+        {
+            int intIndex = catalogColumns.indexOf(candidateList.get(intI));
+
+            if (intIndex >= 0)
+            {
+                intGenreArr[intI]  = catalogColumns.getGenreCodeAt(intIndex);
+                intAuthorArr[intI] = catalogColumns.getAuthorCodeAt(intIndex);
+            }
+            else  // Not in the columns: give it codes nothing else shares
+            {
+                intGenreArr[intI]  = -1 - intI;
+                intAuthorArr[intI] = -1 - intI;
+            }
+
+            dblMin = Math.min(dblMin, dblScoreArr[intI]);
+            dblMax = Math.max(dblMax, dblScoreArr[intI]);
+        }
+
+        double dblRange = dblMax - dblMin;
+
+        for (int intI = 0; intI < intScored; intI++)  // Scale relevance to 0–1 so the weight means the same for any scorer
+        {
+            double dblRel = (dblRange > 0.0) ? (dblScoreArr[intI] - dblMin) / dblRange : 1.0;
+            dblRelArr[intI] = (1.0 - dblWeight) * dblRel;
+        }
+
+        List<Book> listResult = new ArrayList<Book>(intPicks);  // Chosen books
+
+        for (int intPick = 0; intPick < intPicks; intPick++)
+        {
+            int    intBest    = -1;
+            double dblBestMmr = Double.NEGATIVE_INFINITY;
+
+            for (int intI = 0; intI < intScored; intI++)
+            {
+                double dblMmr = dblRelArr[intI] - dblWeight * dblMaxSimArr[intI];
+
+                if (!isPickedArr[intI] && dblMmr > dblBestMmr)  // Strict: earlier candidate wins ties
+                {
+                    intBest    = intI;
+                    dblBestMmr = dblMmr;
+                }
+            }
+
+            isPickedArr[intBest] = true;
+            listResult.add(candidateList.get(intBest));
+
+            for (int intI = 0; intI < intScored; intI++)  // Fold the new pick into each candidate's similarity
+            {
+                double dblSim = (intGenreArr[intI] == intGenreArr[intBest] ? 0.5 : 0.0)
+                              + (intAuthorArr[intI] == intAuthorArr[intBest] ? 0.5 : 0.0);
+                dblMaxSimArr[intI] = Math.max(dblMaxSimArr[intI], dblSim);
+            }
+        }
+
+        return listResult;
+    }
+}
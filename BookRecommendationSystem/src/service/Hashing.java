@@ -0,0 +1,47 @@
+/**
+ * File: Hashing.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Shared 64-bit hash mixing for the package's hash tables and sketches
+ *    (PackedRatingTable, UserSimilarityIndex, TrendingTracker)
+ *  - mix is the SplitMix64 finalizer; seededHash derives one independent hash
+ *    per seed, e.g. per sketch row or MinHash slot
+**/
+package service;
+
+final class Hashing
+{
+    /**
+     * Not instantiable
+     */
+    private Hashing()
+    {
+    }
+
+
+    /**
+     * 64-bit finalizer (SplitMix64): spreads every input bit over the whole result
+     * @param longValue - the value to mix
+     * @return - the mixed value
+     */
+    static long mix(long longValue)
+    {
+        longValue = (longValue ^ (longValue >>> 30)) * 0xBF58476D1CE4E5B9L;
+        longValue = (longValue ^ (longValue >>> 27)) * 0x94D049BB133111EBL;
+        return longValue ^ (longValue >>> 31);
+    }
+
+
+    /**
+     * Hashes a key under one of several seeds, giving a family of independent hash functions
+     * @param longKey - the key (ideally already mixed if it has few distinct bits)
+     * @param longSeed - the seed selecting the hash function
+     * @return - the 64-bit hash
+     */
+    static long seededHash(long longKey, long longSeed)
+    {
+        return mix(longKey ^ longSeed);
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * File: IdDictionary.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Bidirectional mapping between String IDs (usernames, book IDs) and dense ints
+ *  - Ordinals are assigned in first-seen order starting at 0 and never reused,
+ *    so they can index primitive arrays and bitmaps directly
+ *  - Not thread-safe for writers; concurrent readers are safe while no IDs are added
+**/
+package service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class IdDictionary
+{
+    private Map<String, Integer> mapOrdinalById = new HashMap<String, Integer>();  // ID → ordinal
+    private List<String>         strIdList      = new ArrayList<String>();         // Ordinal → ID
+
+
+    /**
+     * Gets the ordinal of an ID, assigning the next free ordinal if it is new
+     * @param strId - the ID to look up
+     * @return - the ID's ordinal
+     */
+    public int getOrAdd(String strId)
+    {
+        Integer intOrdinal = mapOrdinalById.get(strId);
+
+        if (intOrdinal == null)  // First time seen
+        {
+            intOrdinal = strIdList.size();
+            mapOrdinalById.put(strId, intOrdinal);
+            strIdList.add(strId);
+        }
+
+        return intOrdinal;
+    }
+
+
+    /**
+     * Gets the ordinal of an ID without assigning one
+     * @param strId - the ID to look up
+     * @return - the ID's ordinal, or -1 if the ID is unknown
+     */
+    public int lookup(String strId)
+    {
+        Integer intOrdinal = mapOrdinalById.get(strId);
+        return (intOrdinal == null) ? -1 : intOrdinal;
+    }
+
+
+    /**
+     * Gets the ID assigned to an ordinal
+     * @param intOrdinal - the ordinal
+     * @return - the ID
+     * @throws IllegalArgumentException if the ordinal was never assigned
+     */
+    public String getStrId(int intOrdinal)
+    {
+        if (intOrdinal < 0 || intOrdinal >= strIdList.size())  // Validate range
+        {
+            throw new IllegalArgumentException("Unknown ordinal: " + intOrdinal);
+        }
+
+        return strIdList.get(intOrdinal);
+    }
+
+
+    /**
+     * Gets the number of IDs in the dictionary
+     * @return - the ID count (also the next ordinal to be assigned)
+     */
+    public int size()
+    {
+        return strIdList.size();
+    }
+}
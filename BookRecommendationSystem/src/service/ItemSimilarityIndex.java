@@ -0,0 +1,565 @@
+/**
+ * File: ItemSimilarityIndex.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Builds an item-item collaborative filtering index from user ratings
+ *  - Computes sparse cosine (or adjusted-cosine) similarity between co-rated books
+ *  - Keeps only the top-N most similar neighbors per book
+ *  - Computes similarities in parallel, one book per task, using per-thread
+ *    accumulators so memory stays O(ratings + books × N)
+ *  - Builds from an OffHeapRatingStore by reading its user- and book-sorted
+ *    copies in place, with no per-rating arrays on the heap
+ *  - Serves recommendations by aggregating neighbors of a user's highly rated books
+**/
+package service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import model.Rating;
+
+public class ItemSimilarityIndex
+{
+    private static final int intMinPositiveRating = 4;     // Ratings at or above this seed recommendations
+    private static final int intMaxUserHistory    = 1000;  // Users with longer histories are skipped during build
+    private static final int intMaxRating         = 5;     // Implicit seeds are scaled against a top rating
+
+    private Map<String, Integer> mapOrdinalByBookId;  // Book ID → dense ordinal
+    private String[]  strBookIdArr;                   // Dense ordinal → book ID
+    private int[][]   intNeighborArr;                 // Book ordinal → neighbor ordinals, most similar first
+    private float[][] fltSimilarityArr;               // Book ordinal → neighbor similarities
+
+    private final ThreadLocal<Workspace> workspaceLocal;  // Per-thread scoring buffers
+
+
+    /**
+     * Constructs an index from precomputed neighbor lists (use build to create one)
+     */
+    private ItemSimilarityIndex(Map<String, Integer> mapOrdinalByBookId, String[] strBookIdArr,
+                                int[][] intNeighborArr, float[][] fltSimilarityArr)
+    {
+        this.mapOrdinalByBookId = mapOrdinalByBookId;
+        this.strBookIdArr       = strBookIdArr;
+        this.intNeighborArr     = intNeighborArr;
+        this.fltSimilarityArr   = fltSimilarityArr;
+        this.workspaceLocal     = ThreadLocal.withInitial(() -> new Workspace(strBookIdArr.length));
+    }
+
+
+    /**
+     * Builds the similarity index from a collection of ratings
+     * @param ratings - all user ratings
+     * @param intNeighborLimit - number of neighbors to keep per book (N)
+     * @param isAdjusted - true for adjusted cosine (ratings centered on each user's mean)
+     * @return - the built index
+     * @throws IllegalArgumentException if intNeighborLimit is less than 1
+     */
+    public static ItemSimilarityIndex build(Collection<Rating> ratings, int intNeighborLimit, boolean isAdjusted)
+    {
+        if (intNeighborLimit < 1)  // Validate neighbor limit
+        {
+            throw new IllegalArgumentException("Neighbor limit must be at least 1");
+        }
+
+        Map<String, Integer> mapOrdinalByUserId = new HashMap<String, Integer>();  // User ID → ordinal
+        Map<String, Integer> mapOrdinalByBookId = new HashMap<String, Integer>();  // Book ID → ordinal
+        List<String> strBookIdList = new ArrayList<String>();
+
+        int   intRatingCount = ratings.size();
+        int[] intUserArr     = new int[intRatingCount];    // Rating → user ordinal
+        int[] intBookArr     = new int[intRatingCount];    // Rating → book ordinal
+        float[] fltValueArr  = new float[intRatingCount];  // Rating → value
+
+        int intR = 0;
+
+        for (Rating rating : ratings)  // Assign dense ordinals
+        {
+            Integer intUser = mapOrdinalByUserId.get(rating.getStrUserId());
+
+            if (intUser == null)
+            {
+                intUser = mapOrdinalByUserId.size();
+                mapOrdinalByUserId.put(rating.getStrUserId(), intUser);
+            }
+
+            Integer intBook = mapOrdinalByBookId.get(rating.getStrBookId());
+
+            if (intBook == null)
+            {
+                intBook = strBookIdList.size();
+                mapOrdinalByBookId.put(rating.getStrBookId(), intBook);
+                strBookIdList.add(rating.getStrBookId());
+            }
+
+            intUserArr[intR]  = intUser;
+            intBookArr[intR]  = intBook;
+            fltValueArr[intR] = rating.getIntRating();
+            intR++;
+        }
+
+        int intUserCount = mapOrdinalByUserId.size();
+        int intBookCount = strBookIdList.size();
+
+        if (isAdjusted)  // Center each rating on the user's mean
+        {
+            double[] dblSumArr   = new double[intUserCount];
+            int[]    intCountArr = new int[intUserCount];
+
+            for (int intI = 0; intI < intRatingCount; intI++)
+            {
+                dblSumArr[intUserArr[intI]] += fltValueArr[intI];
+                intCountArr[intUserArr[intI]]++;
+            }
+
+            for (int intI = 0; intI < intRatingCount; intI++)
+            {
+                int intUser = intUserArr[intI];
+                fltValueArr[intI] -= (float) (dblSumArr[intUser] / intCountArr[intUser]);
+            }
+        }
+
+        CompressedRows userRows = CompressedRows.of(intUserArr, intBookArr, fltValueArr, intUserCount);  // User → books
+        CompressedRows bookRows = CompressedRows.of(intBookArr, intUserArr, fltValueArr, intBookCount);  // Book → users
+
+        return build(compressedRows(userRows), compressedRows(bookRows), mapOrdinalByBookId,
+                     strBookIdList.toArray(new String[0]), intNeighborLimit);
+    }
+
+
+    /**
+     * Builds the similarity index straight from an off-heap rating snapshot
+     * Both row layouts are read in place from the store's user- and book-sorted copies, so the
+     * build allocates no per-rating memory on the heap
+     * @param ratingStore - snapshot of all ratings, built with its book-sorted copy
+     * @param bookIdDictionary - dictionary that assigned the snapshot's book ordinals
+     * @param intNeighborLimit - number of neighbors to keep per book (N)
+     * @param isAdjusted - true for adjusted cosine (ratings centered on each user's mean)
+     * @return - the built index
+     * @throws IllegalArgumentException if intNeighborLimit is less than 1 or the store has no book-sorted copy
+     */
+    public static ItemSimilarityIndex build(OffHeapRatingStore ratingStore, IdDictionary bookIdDictionary,
+                                            int intNeighborLimit, boolean isAdjusted)
+    {
+        if (intNeighborLimit < 1)  // Validate neighbor limit
+        {
+            throw new IllegalArgumentException("Neighbor limit must be at least 1");
+        }
+
+        if (!ratingStore.hasBookSortedCopy())  // Per-book scans need the second copy
+        {
+            throw new IllegalArgumentException("Rating store must include the book-sorted copy");
+        }
+
+        int      intUserCount   = ratingStore.getIntUserCount();
+        double[] dblUserMeanArr = new double[intUserCount];  // User ordinal → mean score (zero unless adjusted)
+
+        if (isAdjusted)  // Ratings are centered on the fly as they are read
+        {
+            for (int intUser = 0; intUser < intUserCount; intUser++)
+            {
+                int intStart = ratingStore.getUserStart(intUser);
+                int intEnd   = ratingStore.getUserEnd(intUser);
+                double dblSum = 0.0;
+
+                for (int intR = intStart; intR < intEnd; intR++)
+                {
+                    dblSum += ratingStore.getScore(intR);
+                }
+
+                dblUserMeanArr[intUser] = (intEnd > intStart) ? dblSum / (intEnd - intStart) : 0.0;
+            }
+        }
+
+        RatingRows userRows = new RatingRows()  // User → books, from the user-sorted copy
+        {
+            @Override
+            public int start(int intRow)
+            {
+                return ratingStore.getUserStart(intRow);
+            }
+
+            @Override
+            public int end(int intRow)
+            {
+                return ratingStore.getUserEnd(intRow);
+            }
+
+            @Override
+            public int column(int intPos)
+            {
+                return ratingStore.getBook(intPos);
+            }
+
+            @Override
+            public float value(int intPos)
+            {
+                return (float) (ratingStore.getScore(intPos) - dblUserMeanArr[ratingStore.getUser(intPos)]);
+            }
+        };
+
+        RatingRows bookRows = new RatingRows()  // Book → users, from the book-sorted copy
+        {
+            @Override
+            public int start(int intRow)
+            {
+                return ratingStore.getBookStart(intRow);
+            }
+
+            @Override
+            public int end(int intRow)
+            {
+                return ratingStore.getBookEnd(intRow);
+            }
+
+            @Override
+            public int column(int intPos)
+            {
+                return ratingStore.getBookSortedUser(intPos);
+            }
+
+            @Override
+            public float value(int intPos)
+            {
+                return (float) (ratingStore.getBookSortedScore(intPos)
+                                - dblUserMeanArr[ratingStore.getBookSortedUser(intPos)]);
+            }
+        };
+
+        Map<String, Integer> mapOrdinalByBookId = new HashMap<String, Integer>();  // Book ID → ordinal
+        String[] strBookIdArr = new String[bookIdDictionary.size()];
+
+        for (int intBook = 0; intBook < strBookIdArr.length; intBook++)
+        {
+            strBookIdArr[intBook] = bookIdDictionary.getStrId(intBook);
+            mapOrdinalByBookId.put(strBookIdArr[intBook], intBook);
+        }
+
+        return build(userRows, bookRows, mapOrdinalByBookId, strBookIdArr, intNeighborLimit);
+    }
+
+
+    /**
+     * Builds the similarity index from ratings grouped by user and by book, with dense ordinals
+     * Values are already centered when adjusted cosine is wanted
+     */
+    private static ItemSimilarityIndex build(RatingRows userRows, RatingRows bookRows,
+                                             Map<String, Integer> mapOrdinalByBookId, String[] strBookIdArr,
+                                             int intNeighborLimit)
+    {
+        int intBookCount = strBookIdArr.length;
+
+        double[] dblNormArr = new double[intBookCount];  // Book ordinal → vector length
+
+        for (int intBook = 0; intBook < intBookCount; intBook++)
+        {
+            double dblSumSq = 0.0;
+
+            for (int intP = bookRows.start(intBook); intP < bookRows.end(intBook); intP++)
+            {
+                double dblValue = bookRows.value(intP);
+                dblSumSq += dblValue * dblValue;
+            }
+
+            dblNormArr[intBook] = Math.sqrt(dblSumSq);
+        }
+
+        int[][]   intNeighborArr   = new int[intBookCount][];
+        float[][] fltSimilarityArr = new float[intBookCount][];
+
+        ThreadLocal<Workspace> buildLocal = ThreadLocal.withInitial(() -> new Workspace(intBookCount));
+
+        IntStream.range(0, intBookCount).parallel().forEach(intBook ->
+        {
+            Workspace workspace = buildLocal.get();
+            double[]  dblAccArr = workspace.begin(intNeighborLimit);
+
+            for (int intP = bookRows.start(intBook); intP < bookRows.end(intBook); intP++)
+            {
+                int   intUser  = bookRows.column(intP);
+                float fltValue = bookRows.value(intP);
+                int   intStart = userRows.start(intUser);
+                int   intEnd   = userRows.end(intUser);
+
+                if (fltValue == 0.0f || intEnd - intStart > intMaxUserHistory)
+                {
+                    continue;  // No signal, or history too long to pair exhaustively
+                }
+
+                for (int intQ = intStart; intQ < intEnd; intQ++)
+                {
+                    int intOther = userRows.column(intQ);
+
+                    if (intOther != intBook)
+                    {
+                        workspace.accumulate(intOther, fltValue * userRows.value(intQ));
+                    }
+                }
+            }
+
+            for (int intI = 0; intI < workspace.intTouchedCount; intI++)  // Turn dot products into cosines
+            {
+                int    intOther = workspace.intTouchedArr[intI];
+                double dblNorm  = dblNormArr[intBook] * dblNormArr[intOther];
+                double dblSim   = (dblNorm > 0.0) ? dblAccArr[intOther] / dblNorm : 0.0;
+
+                dblAccArr[intOther] = dblSim;
+
+                if (dblSim > 0.0)  // Only keep positively correlated neighbors
+                {
+                    workspace.selector.offer(intOther);
+                }
+            }
+
+            int[]   intTopArr = workspace.selector.drainDescending();
+            float[] fltSimArr = new float[intTopArr.length];
+
+            for (int intI = 0; intI < intTopArr.length; intI++)
+            {
+                fltSimArr[intI] = (float) dblAccArr[intTopArr[intI]];
+            }
+
+            intNeighborArr[intBook]   = intTopArr;
+            fltSimilarityArr[intBook] = fltSimArr;
+            workspace.clear();
+        });
+
+        return new ItemSimilarityIndex(mapOrdinalByBookId, strBookIdArr, intNeighborArr, fltSimilarityArr);
+    }
+
+
+    /**
+     * Wraps on-heap compressed rows as RatingRows
+     */
+    private static RatingRows compressedRows(CompressedRows rows)
+    {
+        return new RatingRows()
+        {
+            @Override
+            public int start(int intRow)
+            {
+                return rows.intOffsetArr[intRow];
+            }
+
+            @Override
+            public int end(int intRow)
+            {
+                return rows.intOffsetArr[intRow + 1];
+            }
+
+            @Override
+            public int column(int intPos)
+            {
+                return rows.intColumnArr[intPos];
+            }
+
+            @Override
+            public float value(int intPos)
+            {
+                return rows.fltValueArr[intPos];
+            }
+        };
+    }
+
+
+    /**
+     * Read access to ratings grouped by row (user or book): row r holds positions [start(r), end(r))
+     */
+    private interface RatingRows
+    {
+        int start(int intRow);
+        int end(int intRow);
+        int column(int intPos);
+        float value(int intPos);
+    }
+
+
+    /**
+     * Gets the number of books covered by the index
+     * @return - the book count
+     */
+    public int getIntBookCount()
+    {
+        return strBookIdArr.length;
+    }
+
+
+    /**
+     * Gets the most similar books to a given book
+     * @param strBookId - the reference book ID
+     * @return - neighbor book IDs, most similar first; empty if the book is unknown
+     */
+    public List<String> getNeighbors(String strBookId)
+    {
+        List<String> strNeighborList = new ArrayList<String>();  // Results
+        Integer intBook = mapOrdinalByBookId.get(strBookId);
+
+        if (intBook != null)
+        {
+            for (int intOther : intNeighborArr[intBook])
+            {
+                strNeighborList.add(strBookIdArr[intOther]);
+            }
+        }
+
+        return strNeighborList;
+    }
+
+
+    /**
+     * Recommends books by aggregating the neighbors of a user's highly rated books
+     * @param userRatingList - the user's ratings
+     * @param ratedBookIdSet - IDs of books the user already rated (excluded)
+     * @param intCount - maximum number of book IDs to return
+     * @return - recommended book IDs, best first; empty if no neighbor signal exists
+     */
+    public List<String> recommend(List<Rating> userRatingList, Set<String> ratedBookIdSet, int intCount)
+    {
+        return recommend(userRatingList, Collections.<String>emptyList(), 0.0, ratedBookIdSet, intCount);
+    }
+
+
+    /**
+     * Recommends books by aggregating the neighbors of a user's highly rated and borrowed books
+     * @param userRatingList - the user's ratings
+     * @param implicitBookIdList - IDs of books the user borrowed (repeats count again)
+     * @param dblImplicitWeight - strength of one borrow relative to a top rating
+     * @param ratedBookIdSet - IDs of books the user already rated (excluded)
+     * @param intCount - maximum number of book IDs to return
+     * @return - recommended book IDs, best first; empty if no neighbor signal exists
+     */
+    public List<String> recommend(List<Rating> userRatingList, List<String> implicitBookIdList,
+                                  double dblImplicitWeight, Set<String> ratedBookIdSet, int intCount)
+    {
+        Workspace workspace = workspaceLocal.get();
+        workspace.begin(intCount);
+
+        for (Rating rating : userRatingList)
+        {
+            Integer intBook = mapOrdinalByBookId.get(rating.getStrBookId());
+
+            if (intBook == null || rating.getIntRating() < intMinPositiveRating)  // Only liked books seed
+            {
+                continue;
+            }
+
+            int[]   intNeighbors = intNeighborArr[intBook];
+            float[] fltSims      = fltSimilarityArr[intBook];
+
+            for (int intI = 0; intI < intNeighbors.length; intI++)
+            {
+                workspace.accumulate(intNeighbors[intI], fltSims[intI] * rating.getIntRating());
+            }
+        }
+
+        double dblImplicitSeed = dblImplicitWeight * intMaxRating;  // Seed strength of one borrow
+
+        for (int intK = 0; dblImplicitSeed > 0.0 && intK < implicitBookIdList.size(); intK++)
+        {
+            Integer intBook = mapOrdinalByBookId.get(implicitBookIdList.get(intK));
+
+            if (intBook == null)  // Never co-rated
+            {
+                continue;
+            }
+
+            int[]   intNeighbors = intNeighborArr[intBook];
+            float[] fltSims      = fltSimilarityArr[intBook];
+
+            for (int intI = 0; intI < intNeighbors.length; intI++)
+            {
+                workspace.accumulate(intNeighbors[intI], fltSims[intI] * dblImplicitSeed);
+            }
+        }
+
+        for (int intI = 0; intI < workspace.intTouchedCount; intI++)
+        {
+            int intOther = workspace.intTouchedArr[intI];
+
+            if (!ratedBookIdSet.contains(strBookIdArr[intOther]))  // Skip already rated
+            {
+                workspace.selector.offer(intOther);
+            }
+        }
+
+        List<String> strResultList = new ArrayList<String>();  // Results
+
+        for (int intOther : workspace.selector.drainDescending())
+        {
+            strResultList.add(strBookIdArr[intOther]);
+        }
+
+        workspace.clear();
+        return strResultList;
+    }
+
+
+    /**
+     * Per-thread buffers: a top-K selector whose score array doubles as a sparse
+     * accumulator, plus the list of ordinals touched since the last clear
+     */
+    private static class Workspace
+    {
+        final TopKSelector selector = new TopKSelector();  // Selector and accumulator storage
+        final int[]     intTouchedArr;                     // Ordinals with non-zero accumulators
+        final boolean[] isTouchedArr;                      // Ordinal → touched flag
+        double[] dblAccArr;                                // Selector's score array, used as accumulator
+        int intTouchedCount = 0;                           // Number of touched ordinals
+
+
+        Workspace(int intSize)
+        {
+            intTouchedArr = new int[intSize];
+            isTouchedArr  = new boolean[intSize];
+        }
+
+
+        /**
+         * Starts a new round of accumulation and selection
+         * @param intLimit - number of results to keep
+         * @return - the accumulator array (entries are valid only once touched)
+         */
+        double[] begin(int intLimit)
+        {
+            dblAccArr = selector.prepare(isTouchedArr.length, intLimit);
+            return dblAccArr;
+        }
+
+
+        /**
+         * Adds a value to an ordinal's accumulator, zeroing it on first touch
+         */
+        void accumulate(int intOrdinal, double dblValue)
+        {
+            if (!isTouchedArr[intOrdinal])  // First contribution
+            {
+                isTouchedArr[intOrdinal]          = true;
+                intTouchedArr[intTouchedCount++]  = intOrdinal;
+                dblAccArr[intOrdinal]             = 0.0;
+            }
+
+            dblAccArr[intOrdinal] += dblValue;
+        }
+
+
+        /**
+         * Resets touched flags so the workspace can be reused
+         */
+        void clear()
+        {
+            for (int intI = 0; intI < intTouchedCount; intI++)
+            {
+                isTouchedArr[intTouchedArr[intI]] = false;
+            }
+
+            intTouchedCount = 0;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * File: LoginBenchmark.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Measures password verification throughput at several PBKDF2 cost factors
+ *  - Drives a PasswordVerificationPool sized like UserManager's with more
+ *    concurrent clients than its threads and queue can hold, to show how a
+ *    login storm is shed
+ *  - Reports single-check latency, accepted and shed (rejected or timed-out)
+ *    logins per second, and p99 latency of accepted logins
+ *  - Works entirely in memory; no user files are read or written
+ *
+ * Usage:
+ *    java service.LoginBenchmark [seconds per cost] [iterations ...]
+**/
+package service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import util.PasswordHasher;
+
+public class LoginBenchmark
+{
+    private static final int[] intDefaultIterationArr = { 10000, 50000, 100000, 200000 };  // Cost factors tried
+    private static final int   intExtraClients        = 32;    // Clients beyond what the pool can hold
+    private static final int   intQueueLimit          = 64;    // Same queue limit as UserManager
+    private static final long  longTimeoutMillis      = 2000;  // Same timeout as UserManager
+
+
+    /**
+     * Runs the benchmark
+     * @param args - optional seconds per cost factor, then the iteration counts to try
+     */
+    public static void main(String[] args) throws InterruptedException
+    {
+        int   intSeconds      = (args.length > 0) ? Integer.parseInt(args[0]) : 3;
+        int[] intIterationArr = intDefaultIterationArr;
+
+        if (args.length > 1)  // Explicit cost factors
+        {
+            intIterationArr = new int[args.length - 1];
+
+            for (int intI = 1; intI < args.length; intI++)
+            {
+                intIterationArr[intI - 1] = Integer.parseInt(args[intI]);
+            }
+        }
+
+        int intThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        int intClients = intThreads + intQueueLimit + intExtraClients;
+
+        System.out.println(String.format("Verification threads: %d, concurrent clients: %d, queue limit: %d",
+            intThreads, intClients, intQueueLimit));
+        System.out.println(String.format("%-12s %-12s %-12s %-12s %-12s",
+            "Iterations", "CheckMillis", "Logins/s", "Shed/s", "P99Millis"));
+
+        for (int intIterations : intIterationArr)
+        {
+            runCost(intIterations, intThreads, intClients, intSeconds);
+        }
+    }
+
+
+    /**
+     * Benchmarks one cost factor and prints a report row
+     */
+    private static void runCost(int intIterations, int intThreads, int intClients, int intSeconds)
+        throws InterruptedException
+    {
+        String strPassword = "benchmark-password";
+        String strStored   = PasswordHasher.hash(strPassword, intIterations);
+
+        for (int intI = 0; intI < 3; intI++)  // Warm up
+        {
+            PasswordHasher.verify(strPassword, strStored);
+        }
+
+        long longStart = System.nanoTime();
+        PasswordHasher.verify(strPassword, strStored);
+        double dblCheckMillis = (System.nanoTime() - longStart) / 1e6;
+
+        PasswordVerificationPool pool            = new PasswordVerificationPool(intThreads, intQueueLimit, longTimeoutMillis);
+        LongAdder                longShed        = new LongAdder();  // Rejected or timed out
+        List<Long>               longLatencyList = Collections.synchronizedList(new ArrayList<Long>());  // Accepted latencies
+        long                     longDeadline    = System.nanoTime() + intSeconds * 1000000000L;
+
+        List<Thread> threadList = new ArrayList<Thread>();
+
+        for (int intC = 0; intC < intClients; intC++)
+        {
+            Thread thread = new Thread(() ->
+            {
+                List<Long> longLocalList = new ArrayList<Long>();  // This client's latencies
+
+                while (System.nanoTime() < longDeadline)
+                {
+                    long    longBegin = System.nanoTime();
+                    Boolean isMatch   = pool.verify(strPassword, strStored);
+
+                    if (isMatch == null)  // Shed: back off for 1 ms like a retrying client
+                    {
+                        longShed.increment();
+                        LockSupport.parkNanos(1000000L);
+                    }
+                    else
+                    {
+                        longLocalList.add(System.nanoTime() - longBegin);
+                    }
+                }
+
+                longLatencyList.addAll(longLocalList);
+            });
+
+            thread.start();
+            threadList.add(thread);
+        }
+
+        for (Thread thread : threadList)
+        {
+            thread.join();
+        }
+
+        pool.shutdown();
+
+        List<Long> longSortedList = new ArrayList<Long>(longLatencyList);
+        Collections.sort(longSortedList);
+        double dblP99Millis = longSortedList.isEmpty() ? 0.0
+            : longSortedList.get((int) Math.min(longSortedList.size() - 1, longSortedList.size() * 0.99)) / 1e6;
+
+        System.out.println(String.format("%-12d %-12.2f %-12.1f %-12.1f %-12.1f",
+            intIterations, dblCheckMillis,
+            (double) longSortedList.size() / intSeconds, (double) longShed.sum() / intSeconds, dblP99Millis));
+    }
+}
@@ -0,0 +1,214 @@
+/**
+ * File: LoginRateLimiter.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Token-bucket rate limiting for login and password recovery attempts,
+ *    per username and across all usernames
+ *  - Each bucket is a single long holding its "theoretical arrival time"
+ *    (GCRA form of a token bucket), updated with one compare-and-set; there
+ *    are no locks
+ *  - Per-username buckets live in a fixed-size sketch: every username maps to
+ *    one bucket in each of a few rows, and an attempt needs a token from all
+ *    of them, so memory is bounded no matter how many usernames are tried
+ *  - Sketch collisions only ever make the limit stricter; rows are hashed
+ *    with random seeds so colliding usernames cannot be picked in advance
+ *  - Unknown usernames are limited too, so guessing is rejected before any
+ *    lookup, hashing or disk I/O
+**/
+package service;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LoginRateLimiter
+{
+    private static final int intSketchRows  = 2;     // Buckets each username takes tokens from
+    private static final int intSketchWidth = 4096;  // Buckets per row (power of two)
+
+    private final AtomicLongArray longUserTatArr;    // Per-username theoretical arrival times, row-major
+    private final AtomicLongArray longGlobalTatArr;  // Single global theoretical arrival time
+    private final int[]           intSeedArr;        // Hash seed per sketch row
+
+    private final long longUserIntervalNanos;    // Time to earn one per-username token
+    private final long longUserLimitNanos;       // Per-username burst expressed as time
+    private final long longGlobalIntervalNanos;  // Time to earn one global token
+    private final long longGlobalLimitNanos;     // Global burst expressed as time
+    private final long longOriginNanos;          // Clock origin, so bucket times start at 0
+
+    private final LongAdder longAllowed  = new LongAdder();  // Attempts let through
+    private final LongAdder longRejected = new LongAdder();  // Attempts turned away
+
+
+    /**
+     * Constructs a rate limiter
+     * @param intUserBurst - attempts one username may make in a burst
+     * @param longUserIntervalMillis - time for one username to earn another attempt
+     * @param intGlobalBurst - attempts all usernames together may make in a burst
+     * @param longGlobalIntervalMillis - time for all usernames together to earn another attempt
+     * @throws IllegalArgumentException if a burst is less than 1 or an interval is negative
+     */
+    public LoginRateLimiter(int intUserBurst, long longUserIntervalMillis,
+                            int intGlobalBurst, long longGlobalIntervalMillis)
+    {
+        if (intUserBurst < 1 || intGlobalBurst < 1 || longUserIntervalMillis < 0 || longGlobalIntervalMillis < 0)
+        {
+            throw new IllegalArgumentException("Bursts must be at least 1; intervals cannot be negative");
+        }
+
+        this.longUserIntervalNanos   = longUserIntervalMillis * 1000000L;
+        this.longUserLimitNanos      = intUserBurst * longUserIntervalNanos;
+        this.longGlobalIntervalNanos = longGlobalIntervalMillis * 1000000L;
+        this.longGlobalLimitNanos    = intGlobalBurst * longGlobalIntervalNanos;
+
+        this.longUserTatArr   = new AtomicLongArray(intSketchRows * intSketchWidth);
+        this.longGlobalTatArr = new AtomicLongArray(1);
+        this.intSeedArr       = new int[intSketchRows];
+
+        for (int intRow = 0; intRow < intSketchRows; intRow++)
+        {
+            intSeedArr[intRow] = ThreadLocalRandom.current().nextInt() | 1;  // Odd multiplier
+        }
+
+        this.longOriginNanos = System.nanoTime();
+    }
+
+
+    /**
+     * Takes one attempt for a username, or rejects it if that username or the
+     * whole service is over its rate
+     * @param strUsername - the username being tried (case-insensitive; null is treated as empty)
+     * @return - true if the attempt may proceed
+     */
+    public boolean tryAcquire(String strUsername)
+    {
+        long   longNow     = System.nanoTime() - longOriginNanos;
+        String strKey      = (strUsername == null) ? "" : strUsername.toUpperCase(Locale.ROOT);
+        int[]  intIndexArr = new int[intSketchRows];
+
+        for (int intRow = 0; intRow < intSketchRows; intRow++)  // Take from each row, refunding on failure
+        {
+            intIndexArr[intRow] = intRow * intSketchWidth + bucketIndex(strKey, intSeedArr[intRow]);
+
+            if (!take(longUserTatArr, intIndexArr[intRow], longNow, longUserIntervalNanos, longUserLimitNanos))
+            {
+                refund(longUserTatArr, intIndexArr, intRow, longUserIntervalNanos);
+                longRejected.increment();
+                return false;
+            }
+        }
+
+        if (!take(longGlobalTatArr, 0, longNow, longGlobalIntervalNanos, longGlobalLimitNanos))  // Whole service busy
+        {
+            refund(longUserTatArr, intIndexArr, intSketchRows, longUserIntervalNanos);
+            longRejected.increment();
+            return false;
+        }
+
+        longAllowed.increment();
+        return true;
+    }
+
+
+    /**
+     * Gets the number of attempts let through
+     * @return - the allowed count
+     */
+    public long getLongAllowedCount()
+    {
+        return longAllowed.sum();
+    }
+
+
+    /**
+     * Gets the number of attempts turned away
+     * @return - the rejected count
+     */
+    public long getLongRejectedCount()
+    {
+        return longRejected.sum();
+    }
+
+
+    /**
+     * Returns a string summary of the limiter
+     * @return - formatted summary
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("LoginRateLimiter[allowed=%d, rejected=%d]", longAllowed.sum(), longRejected.sum());
+    }
+
+
+    /**
+     * Takes one token from a bucket if it has one
+     * A bucket's theoretical arrival time runs ahead of now by one interval per token spent
+     * @param longTatArr - the bucket array
+     * @param intIndex - the bucket
+     * @param longNow - current time since the origin
+     * @param longIntervalNanos - time to earn one token
+     * @param longLimitNanos - burst expressed as time
+     * @return - true if a token was taken
+     */
+    private static boolean take(AtomicLongArray longTatArr, int intIndex, long longNow,
+                                long longIntervalNanos, long longLimitNanos)
+    {
+        while (true)
+        {
+            long longTat    = longTatArr.get(intIndex);
+            long longNewTat = Math.max(longTat, longNow) + longIntervalNanos;
+
+            if (longNewTat - longNow > longLimitNanos)  // Bucket empty
+            {
+                return false;
+            }
+
+            if (longTatArr.compareAndSet(intIndex, longTat, longNewTat))
+            {
+                return true;
+            }
+        }
+    }
+
+
+    /**
+     * Gives back tokens already taken from the first rows of the sketch
+     * @param longTatArr - the bucket array
+     * @param intIndexArr - bucket index per row
+     * @param intRows - number of leading rows to refund
+     * @param longIntervalNanos - time worth one token
+     */
+    private static void refund(AtomicLongArray longTatArr, int[] intIndexArr, int intRows, long longIntervalNanos)
+    {
+        for (int intRow = 0; intRow < intRows; intRow++)
+        {
+            longTatArr.addAndGet(intIndexArr[intRow], -longIntervalNanos);  // Below now just means a full bucket
+        }
+    }
+
+
+    /**
+     * Maps a folded username to a bucket within one sketch row
+     * Uses the row's random multiplier instead of String.hashCode, whose collisions are easy to construct
+     * @param strKey - the folded username
+     * @param intSeed - the row's odd multiplier
+     * @return - the bucket index within the row
+     */
+    private static int bucketIndex(String strKey, int intSeed)
+    {
+        int intMixed = intSeed;
+
+        for (int intI = 0; intI < strKey.length(); intI++)
+        {
+            intMixed = intMixed * intSeed + strKey.charAt(intI);
+        }
+
+        intMixed ^= intMixed >>> 16;  // Fold high bits into the index bits
+
+        return intMixed & (intSketchWidth - 1);
+    }
+}
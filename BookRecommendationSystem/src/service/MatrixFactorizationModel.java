@@ -0,0 +1,320 @@
+/**
+ * File: MatrixFactorizationModel.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Holds latent user and book factor matrices produced by AlsTrainer
+ *  - Stores factors row-major in primitive float arrays (ordinal × rank)
+ *  - Predicts ratings and serves top-K books by dot product
+ *  - Saves to and loads from a compact binary file
+**/
+package service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class MatrixFactorizationModel
+{
+    private static final int intFileMagic         = 0x4D463031;  // "MF01" file marker
+    private static final int intDeadlineCheckMask = 1023;        // Check the clock every 1024 books
+
+    private int intRank;                              // Number of latent factors
+    private Map<String, Integer> mapOrdinalByUserId;  // User ID → ordinal
+    private Map<String, Integer> mapOrdinalByBookId;  // Book ID → ordinal
+    private String[] strBookIdArr;                    // Book ordinal → ID
+    private float[]  fltUserFactorArr;                // User ordinal × rank
+    private float[]  fltBookFactorArr;                // Book ordinal × rank
+
+    private final ThreadLocal<TopKSelector> topKSelectorLocal =
+        ThreadLocal.withInitial(TopKSelector::new);   // Reused top-K buffers per thread
+
+
+    /**
+     * Constructs a model from trained factor matrices
+     * @param intRank - number of latent factors
+     * @param strUserIdArr - user ordinal → ID
+     * @param strBookIdArr - book ordinal → ID
+     * @param fltUserFactorArr - user factors, row-major (users × rank)
+     * @param fltBookFactorArr - book factors, row-major (books × rank)
+     */
+    public MatrixFactorizationModel(int intRank, String[] strUserIdArr, String[] strBookIdArr,
+                                    float[] fltUserFactorArr, float[] fltBookFactorArr)
+    {
+        this.intRank            = intRank;
+        this.strBookIdArr       = strBookIdArr;
+        this.fltUserFactorArr   = fltUserFactorArr;
+        this.fltBookFactorArr   = fltBookFactorArr;
+        this.mapOrdinalByUserId = new HashMap<String, Integer>();
+        this.mapOrdinalByBookId = new HashMap<String, Integer>();
+
+        for (int intI = 0; intI < strUserIdArr.length; intI++)
+        {
+            mapOrdinalByUserId.put(strUserIdArr[intI], intI);
+        }
+
+        for (int intI = 0; intI < strBookIdArr.length; intI++)
+        {
+            mapOrdinalByBookId.put(strBookIdArr[intI], intI);
+        }
+    }
+
+
+    /**
+     * Gets the number of latent factors
+     * @return - the rank
+     */
+    public int getIntRank()
+    {
+        return intRank;
+    }
+
+
+    /**
+     * Checks whether the model has factors for a user
+     * @param strUserId - the user's unique identifier
+     * @return - true if the user was present at training time
+     */
+    public boolean hasUser(String strUserId)
+    {
+        return mapOrdinalByUserId.containsKey(strUserId);
+    }
+
+
+    /**
+     * Predicts a user's rating of a book
+     * @param strUserId - the user's unique identifier
+     * @param strBookId - the book's unique identifier
+     * @return - predicted rating, or NaN if the user or book is unknown to the model
+     */
+    public double predict(String strUserId, String strBookId)
+    {
+        Integer intUser = mapOrdinalByUserId.get(strUserId);
+        Integer intBook = mapOrdinalByBookId.get(strBookId);
+
+        if (intUser == null || intBook == null)  // Unknown to the model
+        {
+            return Double.NaN;
+        }
+
+        return dot(intUser * intRank, intBook * intRank);
+    }
+
+
+    /**
+     * Recommends the books with the highest predicted rating for a user
+     * @param strUserId - the user's unique identifier
+     * @param ratedBookIdSet - IDs of books the user already rated (excluded)
+     * @param intCount - maximum number of book IDs to return
+     * @return - book IDs, best first; empty if the user is unknown to the model
+     */
+    public List<String> recommend(String strUserId, Set<String> ratedBookIdSet, int intCount)
+    {
+        return recommend(strUserId, ratedBookIdSet, intCount, Long.MAX_VALUE);
+    }
+
+
+    /**
+     * Recommends the books with the highest predicted rating for a user, stopping the catalog scan at a deadline
+     * @param strUserId - the user's unique identifier
+     * @param ratedBookIdSet - IDs of books the user already rated (excluded)
+     * @param intCount - maximum number of book IDs to return
+     * @param longDeadlineNanos - System.nanoTime() value to stop scanning at, or Long.MAX_VALUE for no deadline
+     * @return - book IDs, best first, from the books scanned before the deadline; empty if the user is unknown
+     */
+    public List<String> recommend(String strUserId, Set<String> ratedBookIdSet, int intCount, long longDeadlineNanos)
+    {
+        List<String> strResultList = new ArrayList<String>();  // Results
+        Integer intUser = mapOrdinalByUserId.get(strUserId);
+
+        if (intUser == null)  // Cold start for this model
+        {
+            return strResultList;
+        }
+
+        TopKSelector selector    = topKSelectorLocal.get();
+        double[]     dblScoreArr = selector.prepare(strBookIdArr.length, intCount);
+        int          intUserBase = intUser * intRank;
+
+        for (int intBook = 0; intBook < strBookIdArr.length; intBook++)
+        {
+            if (intBook > 0 && (intBook & intDeadlineCheckMask) == 0 && System.nanoTime() >= longDeadlineNanos)
+            {
+                break;  // Out of time: rank what has been scored so far
+            }
+
+            if (ratedBookIdSet.contains(strBookIdArr[intBook]))  // Skip already rated
+            {
+                continue;
+            }
+
+            dblScoreArr[intBook] = dot(intUserBase, intBook * intRank);
+            selector.offer(intBook);
+        }
+
+        for (int intBook : selector.drainDescending())
+        {
+            strResultList.add(strBookIdArr[intBook]);
+        }
+
+        return strResultList;
+    }
+
+
+    /**
+     * Computes the dot product of a user row and a book row
+     * @param intUserBase - start of the user row in the user factor array
+     * @param intBookBase - start of the book row in the book factor array
+     * @return - the dot product
+     */
+    private double dot(int intUserBase, int intBookBase)
+    {
+        double dblSum = 0.0;
+
+        for (int intF = 0; intF < intRank; intF++)
+        {
+            dblSum += fltUserFactorArr[intUserBase + intF] * fltBookFactorArr[intBookBase + intF];
+        }
+
+        return dblSum;
+    }
+
+
+    /**
+     * Saves the model to a binary file
+     * @param strPath - destination file path
+     * @return - true if the save succeeded; false otherwise
+     */
+    public boolean save(String strPath)
+    {
+        String[] strUserIdArr = new String[mapOrdinalByUserId.size()];  // Ordinal → user ID
+
+        for (Map.Entry<String, Integer> entry : mapOrdinalByUserId.entrySet())
+        {
+            strUserIdArr[entry.getValue()] = entry.getKey();
+        }
+
+        try (DataOutputStream out = new DataOutputStream(
+                 new BufferedOutputStream(new FileOutputStream(strPath))))  // File writer
+        {
+            out.writeInt(intFileMagic);
+            out.writeInt(intRank);
+            writeIds(out, strUserIdArr);
+            writeIds(out, strBookIdArr);
+            writeFloats(out, fltUserFactorArr);
+            writeFloats(out, fltBookFactorArr);
+            return true;
+        }
+        catch (IOException e)  // Write failure
+        {
+            System.out.println("Failed to save the factorization model. Please check file permissions.");
+            return false;
+        }
+    }
+
+
+    /**
+     * Loads a model from a binary file
+     * @param strPath - source file path
+     * @return - the loaded model, or null if the file is missing or invalid
+     */
+    public static MatrixFactorizationModel load(String strPath)
+    {
+        if (!new File(strPath).exists())  // No trained model yet
+        {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(
+                 new BufferedInputStream(new FileInputStream(strPath))))  // File reader
+        {
+            if (in.readInt() != intFileMagic)  // Not a model file
+            {
+                System.out.println("The factorization model file format is incorrect.");
+                return null;
+            }
+
+            int      intRank      = in.readInt();
+            String[] strUserIdArr = readIds(in);
+            String[] strBookIdArr = readIds(in);
+            float[]  fltUserArr   = readFloats(in, strUserIdArr.length * intRank);
+            float[]  fltBookArr   = readFloats(in, strBookIdArr.length * intRank);
+
+            return new MatrixFactorizationModel(intRank, strUserIdArr, strBookIdArr, fltUserArr, fltBookArr);
+        }
+        catch (IOException e)  // Read failure
+        {
+            System.out.println("Failed to load the factorization model. Please check the file.");
+            return null;
+        }
+    }
+
+
+    /**
+     * Writes a length-prefixed array of IDs
+     */
+    private static void writeIds(DataOutputStream out, String[] strIdArr) throws IOException
+    {
+        out.writeInt(strIdArr.length);
+
+        for (String strId : strIdArr)
+        {
+            out.writeUTF(strId);
+        }
+    }
+
+
+    /**
+     * Reads a length-prefixed array of IDs
+     */
+    private static String[] readIds(DataInputStream in) throws IOException
+    {
+        String[] strIdArr = new String[in.readInt()];
+
+        for (int intI = 0; intI < strIdArr.length; intI++)
+        {
+            strIdArr[intI] = in.readUTF();
+        }
+
+        return strIdArr;
+    }
+
+
+    /**
+     * Writes a float array without a length prefix
+     */
+    private static void writeFloats(DataOutputStream out, float[] fltArr) throws IOException
+    {
+        for (float fltValue : fltArr)
+        {
+            out.writeFloat(fltValue);
+        }
+    }
+
+
+    /**
+     * Reads a float array of known length
+     */
+    private static float[] readFloats(DataInputStream in, int intLength) throws IOException
+    {
+        float[] fltArr = new float[intLength];
+
+        for (int intI = 0; intI < intLength; intI++)
+        {
+            fltArr[intI] = in.readFloat();
+        }
+
+        return fltArr;
+    }
+}
@@ -0,0 +1,346 @@
+/**
+ * File: OffHeapRatingStore.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Read-only rating snapshot kept outside the Java heap in direct ByteBuffers
+ *  - Packs each rating as a 9-byte record: user ordinal (int), book ordinal (int), score (byte)
+ *  - Records are sorted by user with a per-user offset index; an optional second
+ *    copy is sorted by book with a per-book offset index
+ *  - Splits storage into fixed-size segments so it is not limited to 2 GB
+ *  - Scans and per-user lookups go through primitive accessors or a visitor and
+ *    allocate nothing per rating
+**/
+package service;
+
+import java.nio.ByteBuffer;
+
+public class OffHeapRatingStore
+{
+    private static final int intRecordBytes  = 9;   // int user + int book + byte score
+    private static final int intSegmentShift = 26;  // 2^26 records (~576 MB) per segment
+    private static final int intSegmentMask  = (1 << intSegmentShift) - 1;
+
+    private final int intRatingCount;  // Number of records in each copy
+
+    private final ByteBuffer[] userSortedArr;     // Records sorted by user
+    private final int[]        intUserOffsetArr;  // User ordinal → first record (length users + 1)
+
+    private final ByteBuffer[] bookSortedArr;     // Records sorted by book, or null if not built
+    private final int[]        intBookOffsetArr;  // Book ordinal → first record, or null if not built
+
+
+    /**
+     * Receives ratings one at a time during a scan
+     */
+    public interface RatingVisitor
+    {
+        /**
+         * Visits one rating
+         * @param intUser - the user ordinal
+         * @param intBook - the book ordinal
+         * @param intScore - the score (1–5)
+         */
+        void visit(int intUser, int intBook, int intScore);
+    }
+
+
+    /**
+     * Constructs a store from already-filled buffers (use from to create one)
+     */
+    private OffHeapRatingStore(int intRatingCount, ByteBuffer[] userSortedArr, int[] intUserOffsetArr,
+                               ByteBuffer[] bookSortedArr, int[] intBookOffsetArr)
+    {
+        this.intRatingCount   = intRatingCount;
+        this.userSortedArr    = userSortedArr;
+        this.intUserOffsetArr = intUserOffsetArr;
+        this.bookSortedArr    = bookSortedArr;
+        this.intBookOffsetArr = intBookOffsetArr;
+    }
+
+
+    /**
+     * Copies the current contents of a packed rating table off-heap
+     * @param ratingTable - the table to copy
+     * @param intUserCount - number of user ordinals (all ordinals in the table are below this)
+     * @param intBookCount - number of book ordinals (all ordinals in the table are below this)
+     * @param isBookSorted - true to also build the book-sorted copy
+     * @return - the snapshot
+     */
+    static OffHeapRatingStore from(PackedRatingTable ratingTable, int intUserCount, int intBookCount,
+                                   boolean isBookSorted)
+    {
+        int intCount = ratingTable.size();
+
+        int[]        intUserOffsetArr = new int[intUserCount + 1];
+        ByteBuffer[] userSortedArr    = sortInto(ratingTable, intCount, intUserOffsetArr, true);
+
+        int[]        intBookOffsetArr = null;
+        ByteBuffer[] bookSortedArr    = null;
+
+        if (isBookSorted)  // Optional second copy for per-book scans
+        {
+            intBookOffsetArr = new int[intBookCount + 1];
+            bookSortedArr    = sortInto(ratingTable, intCount, intBookOffsetArr, false);
+        }
+
+        return new OffHeapRatingStore(intCount, userSortedArr, intUserOffsetArr, bookSortedArr, intBookOffsetArr);
+    }
+
+
+    /**
+     * Counting-sorts the table's rows into new direct buffers
+     * @param intOffsetArr - filled with the start record of each key (length keys + 1)
+     * @param isByUser - true to sort by user ordinal; false to sort by book ordinal
+     * @return - the sorted segments
+     */
+    private static ByteBuffer[] sortInto(PackedRatingTable ratingTable, int intCount, int[] intOffsetArr,
+                                         boolean isByUser)
+    {
+        for (int intRow = 0; intRow < intCount; intRow++)  // Count records per key
+        {
+            intOffsetArr[(isByUser ? ratingTable.getUser(intRow) : ratingTable.getBook(intRow)) + 1]++;
+        }
+
+        for (int intK = 0; intK + 1 < intOffsetArr.length; intK++)  // Prefix sums → start records
+        {
+            intOffsetArr[intK + 1] += intOffsetArr[intK];
+        }
+
+        ByteBuffer[] segmentArr = allocate(intCount);
+        int[]        intNextArr = intOffsetArr.clone();  // Key → next free record
+
+        for (int intRow = 0; intRow < intCount; intRow++)
+        {
+            int intUser   = ratingTable.getUser(intRow);
+            int intBook   = ratingTable.getBook(intRow);
+            int intRecord = intNextArr[isByUser ? intUser : intBook]++;
+
+            ByteBuffer segment = segmentArr[intRecord >>> intSegmentShift];
+            int        intPos  = (intRecord & intSegmentMask) * intRecordBytes;
+
+            segment.putInt(intPos, intUser);
+            segment.putInt(intPos + 4, intBook);
+            segment.put(intPos + 8, (byte) ratingTable.getScore(intRow));
+        }
+
+        return segmentArr;
+    }
+
+
+    /**
+     * Allocates enough direct segments to hold a number of records
+     */
+    private static ByteBuffer[] allocate(int intCount)
+    {
+        int          intSegmentCount = (intCount + intSegmentMask) >>> intSegmentShift;
+        ByteBuffer[] segmentArr      = new ByteBuffer[Math.max(1, intSegmentCount)];
+
+        for (int intS = 0; intS < segmentArr.length; intS++)
+        {
+            int intRecords = Math.min(intCount - (intS << intSegmentShift), 1 << intSegmentShift);
+            segmentArr[intS] = ByteBuffer.allocateDirect(Math.max(0, intRecords) * intRecordBytes);
+        }
+
+        return segmentArr;
+    }
+
+
+    /**
+     * Gets the number of ratings in the store
+     * @return - the rating count
+     */
+    public int size()
+    {
+        return intRatingCount;
+    }
+
+
+    /**
+     * Gets the number of user ordinals covered by the offset index
+     * @return - the user count
+     */
+    public int getIntUserCount()
+    {
+        return intUserOffsetArr.length - 1;
+    }
+
+
+    /**
+     * Checks whether the book-sorted copy was built
+     * @return - true if per-book scans are available
+     */
+    public boolean hasBookSortedCopy()
+    {
+        return bookSortedArr != null;
+    }
+
+
+    /**
+     * Gets the first user-sorted record of a user
+     * @param intUser - the user ordinal
+     * @return - record position; the user's records are [getUserStart, getUserEnd)
+     */
+    public int getUserStart(int intUser)
+    {
+        return (intUser < getIntUserCount()) ? intUserOffsetArr[intUser] : intRatingCount;
+    }
+
+
+    /**
+     * Gets the position after the last user-sorted record of a user
+     * @param intUser - the user ordinal
+     * @return - record position
+     */
+    public int getUserEnd(int intUser)
+    {
+        return (intUser < getIntUserCount()) ? intUserOffsetArr[intUser + 1] : intRatingCount;
+    }
+
+
+    /**
+     * Gets the user ordinal of a user-sorted record
+     * @param intRecord - record position
+     * @return - the user ordinal
+     */
+    public int getUser(int intRecord)
+    {
+        return userSortedArr[intRecord >>> intSegmentShift].getInt((intRecord & intSegmentMask) * intRecordBytes);
+    }
+
+
+    /**
+     * Gets the book ordinal of a user-sorted record
+     * @param intRecord - record position
+     * @return - the book ordinal
+     */
+    public int getBook(int intRecord)
+    {
+        return userSortedArr[intRecord >>> intSegmentShift].getInt((intRecord & intSegmentMask) * intRecordBytes + 4);
+    }
+
+
+    /**
+     * Gets the score of a user-sorted record
+     * @param intRecord - record position
+     * @return - the score (1–5)
+     */
+    public int getScore(int intRecord)
+    {
+        return userSortedArr[intRecord >>> intSegmentShift].get((intRecord & intSegmentMask) * intRecordBytes + 8);
+    }
+
+
+    /**
+     * Gets the first book-sorted record of a book
+     * @param intBook - the book ordinal
+     * @return - record position; the book's records are [getBookStart, getBookEnd)
+     * @throws IllegalStateException if the store was built without the book-sorted copy
+     */
+    public int getBookStart(int intBook)
+    {
+        requireBookSortedCopy();
+        return (intBook < intBookOffsetArr.length - 1) ? intBookOffsetArr[intBook] : intRatingCount;
+    }
+
+
+    /**
+     * Gets the position after the last book-sorted record of a book
+     * @param intBook - the book ordinal
+     * @return - record position
+     * @throws IllegalStateException if the store was built without the book-sorted copy
+     */
+    public int getBookEnd(int intBook)
+    {
+        requireBookSortedCopy();
+        return (intBook < intBookOffsetArr.length - 1) ? intBookOffsetArr[intBook + 1] : intRatingCount;
+    }
+
+
+    /**
+     * Gets the user ordinal of a book-sorted record
+     * @param intRecord - record position in the book-sorted copy
+     * @return - the user ordinal
+     */
+    public int getBookSortedUser(int intRecord)
+    {
+        return bookSortedArr[intRecord >>> intSegmentShift].getInt((intRecord & intSegmentMask) * intRecordBytes);
+    }
+
+
+    /**
+     * Gets the score of a book-sorted record
+     * @param intRecord - record position in the book-sorted copy
+     * @return - the score (1–5)
+     */
+    public int getBookSortedScore(int intRecord)
+    {
+        return bookSortedArr[intRecord >>> intSegmentShift].get((intRecord & intSegmentMask) * intRecordBytes + 8);
+    }
+
+
+    /**
+     * Visits every rating in user order
+     * @param visitor - receives each rating
+     */
+    public void forEach(RatingVisitor visitor)
+    {
+        visitRange(userSortedArr, 0, intRatingCount, visitor);
+    }
+
+
+    /**
+     * Visits every rating of one user
+     * @param intUser - the user ordinal
+     * @param visitor - receives each rating
+     */
+    public void forEachOfUser(int intUser, RatingVisitor visitor)
+    {
+        visitRange(userSortedArr, getUserStart(intUser), getUserEnd(intUser), visitor);
+    }
+
+
+    /**
+     * Visits every rating of one book using the book-sorted copy
+     * @param intBook - the book ordinal
+     * @param visitor - receives each rating
+     * @throws IllegalStateException if the store was built without the book-sorted copy
+     */
+    public void forEachOfBook(int intBook, RatingVisitor visitor)
+    {
+        requireBookSortedCopy();
+
+        if (intBook < intBookOffsetArr.length - 1)  // Unknown books have no ratings
+        {
+            visitRange(bookSortedArr, intBookOffsetArr[intBook], intBookOffsetArr[intBook + 1], visitor);
+        }
+    }
+
+
+    /**
+     * Fails fast when a per-book access is made on a store without the book-sorted copy
+     */
+    private void requireBookSortedCopy()
+    {
+        if (bookSortedArr == null)  // Copy not built
+        {
+            throw new IllegalStateException("Store was built without a book-sorted copy");
+        }
+    }
+
+
+    /**
+     * Visits records [intStart, intEnd) of one sorted copy
+     */
+    private static void visitRange(ByteBuffer[] segmentArr, int intStart, int intEnd, RatingVisitor visitor)
+    {
+        for (int intRecord = intStart; intRecord < intEnd; intRecord++)
+        {
+            ByteBuffer segment = segmentArr[intRecord >>> intSegmentShift];
+            int        intPos  = (intRecord & intSegmentMask) * intRecordBytes;
+
+            visitor.visit(segment.getInt(intPos), segment.getInt(intPos + 4), segment.get(intPos + 8));
+        }
+    }
+}
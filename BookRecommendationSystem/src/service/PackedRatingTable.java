@@ -0,0 +1,292 @@
+/**
+ * File: PackedRatingTable.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - In-memory rating storage as packed (user ordinal, book ordinal, score, timestamp) rows
+ *    in parallel primitive arrays instead of one Rating object per rating
+ *  - Finds a user's rating of a book by a long composite key in an
+ *    open-addressing hash table, so upserts are O(1) and replace in place
+ *  - Keeps each user's row list and each book's running rating sum and count
+ *  - Rows are kept in first-insertion order and are never removed
+ *  - Not thread-safe for writers; concurrent readers are safe while no ratings are added
+**/
+package service;
+
+import java.util.Arrays;
+
+class PackedRatingTable
+{
+    private static final long longEmptyKey = -1L;  // Marks an unused hash slot
+
+    private int[]  intUserArr   = new int[16];   // Row → user ordinal
+    private int[]  intBookArr   = new int[16];   // Row → book ordinal
+    private byte[] byteScoreArr = new byte[16];  // Row → score (1–5)
+    private long[] longTimeArr  = new long[16];  // Row → timestamp (epoch milliseconds)
+    private int    intRowCount  = 0;             // Number of rows in use
+
+    private long[] longKeyArr    = newKeyArr(64);  // Hash slot → composite key, or empty
+    private int[]  intSlotRowArr = new int[64];    // Hash slot → row
+
+    private int[][] intRowsByUserArr   = new int[16][];  // User ordinal → that user's rows
+    private int[]   intUserRowCountArr = new int[16];    // User ordinal → rows in use
+
+    private long[] longScoreSumByBookArr  = new long[16];  // Book ordinal → sum of scores
+    private int[]  intScoreCountByBookArr = new int[16];   // Book ordinal → number of ratings
+
+
+    /**
+     * Adds a rating, or replaces the score of an existing rating of the same book by the same user
+     * @param intUser - the user ordinal
+     * @param intBook - the book ordinal
+     * @param intScore - the score (1–5)
+     * @param longTimestamp - when the rating was given (epoch milliseconds)
+     * @return - the replaced score, or 0 if this is a new rating
+     */
+    int upsert(int intUser, int intBook, int intScore, long longTimestamp)
+    {
+        long longKey = ((long) intUser << 32) | (intBook & 0xFFFFFFFFL);
+        int  intSlot = findSlot(longKey);
+
+        if (longKeyArr[intSlot] == longKey)  // Existing rating: replace in place
+        {
+            int intRow      = intSlotRowArr[intSlot];
+            int intOldScore = byteScoreArr[intRow];
+
+            byteScoreArr[intRow]            = (byte) intScore;
+            longTimeArr[intRow]             = longTimestamp;
+            longScoreSumByBookArr[intBook] += intScore - intOldScore;
+            return intOldScore;
+        }
+
+        int intRow = appendRow(intUser, intBook, intScore);
+        longTimeArr[intRow] = longTimestamp;
+        longKeyArr[intSlot]    = longKey;
+        intSlotRowArr[intSlot] = intRow;
+
+        if (intRowCount * 2 > longKeyArr.length)  // Keep the load factor at or below 0.5
+        {
+            rehash(longKeyArr.length * 2);
+        }
+
+        return 0;
+    }
+
+
+    /**
+     * Finds the row holding a user's rating of a book
+     * @param intUser - the user ordinal
+     * @param intBook - the book ordinal
+     * @return - the row, or -1 if the user has not rated the book
+     */
+    int findRow(int intUser, int intBook)
+    {
+        long longKey = ((long) intUser << 32) | (intBook & 0xFFFFFFFFL);
+        int  intSlot = findSlot(longKey);
+
+        return (longKeyArr[intSlot] == longKey) ? intSlotRowArr[intSlot] : -1;
+    }
+
+
+    /**
+     * Gets the number of rows (distinct user/book pairs)
+     * @return - the row count
+     */
+    int size()
+    {
+        return intRowCount;
+    }
+
+
+    /**
+     * Gets the user ordinal of a row
+     * @param intRow - the row
+     * @return - the user ordinal
+     */
+    int getUser(int intRow)
+    {
+        return intUserArr[intRow];
+    }
+
+
+    /**
+     * Gets the book ordinal of a row
+     * @param intRow - the row
+     * @return - the book ordinal
+     */
+    int getBook(int intRow)
+    {
+        return intBookArr[intRow];
+    }
+
+
+    /**
+     * Gets the score of a row
+     * @param intRow - the row
+     * @return - the score (1–5)
+     */
+    int getScore(int intRow)
+    {
+        return byteScoreArr[intRow];
+    }
+
+
+    /**
+     * Gets the timestamp of a row
+     * @param intRow - the row
+     * @return - when the rating was last given (epoch milliseconds)
+     */
+    long getTimestamp(int intRow)
+    {
+        return longTimeArr[intRow];
+    }
+
+
+    /**
+     * Gets the number of ratings submitted by a user
+     * @param intUser - the user ordinal
+     * @return - the user's rating count (0 if the user never rated)
+     */
+    int getUserRowCount(int intUser)
+    {
+        return (intUser < intUserRowCountArr.length) ? intUserRowCountArr[intUser] : 0;
+    }
+
+
+    /**
+     * Gets one of a user's rows
+     * @param intUser - the user ordinal
+     * @param intIndex - position in the user's row list (0 to getUserRowCount - 1)
+     * @return - the row
+     */
+    int getUserRow(int intUser, int intIndex)
+    {
+        return intRowsByUserArr[intUser][intIndex];
+    }
+
+
+    /**
+     * Gets the sum of all scores given to a book
+     * @param intBook - the book ordinal
+     * @return - the score sum (0 if the book was never rated)
+     */
+    long getScoreSum(int intBook)
+    {
+        return (intBook < longScoreSumByBookArr.length) ? longScoreSumByBookArr[intBook] : 0;
+    }
+
+
+    /**
+     * Gets the number of ratings of a book
+     * @param intBook - the book ordinal
+     * @return - the rating count (0 if the book was never rated)
+     */
+    int getScoreCount(int intBook)
+    {
+        return (intBook < intScoreCountByBookArr.length) ? intScoreCountByBookArr[intBook] : 0;
+    }
+
+
+    /**
+     * Appends a new row and links it into the per-user and per-book state
+     * @return - the new row
+     */
+    private int appendRow(int intUser, int intBook, int intScore)
+    {
+        if (intRowCount == intUserArr.length)  // Grow row storage
+        {
+            intUserArr   = Arrays.copyOf(intUserArr, intRowCount * 2);
+            intBookArr   = Arrays.copyOf(intBookArr, intRowCount * 2);
+            byteScoreArr = Arrays.copyOf(byteScoreArr, intRowCount * 2);
+            longTimeArr  = Arrays.copyOf(longTimeArr, intRowCount * 2);
+        }
+
+        int intRow = intRowCount++;
+        intUserArr[intRow]   = intUser;
+        intBookArr[intRow]   = intBook;
+        byteScoreArr[intRow] = (byte) intScore;
+
+        if (intUser >= intRowsByUserArr.length)  // Grow per-user storage
+        {
+            int intLength = Math.max(intUser + 1, intRowsByUserArr.length * 2);
+            intRowsByUserArr   = Arrays.copyOf(intRowsByUserArr, intLength);
+            intUserRowCountArr = Arrays.copyOf(intUserRowCountArr, intLength);
+        }
+
+        int[] intRowsArr = intRowsByUserArr[intUser];
+        int   intCount   = intUserRowCountArr[intUser];
+
+        if (intRowsArr == null)  // First rating by this user
+        {
+            intRowsArr = new int[4];
+        }
+        else if (intCount == intRowsArr.length)
+        {
+            intRowsArr = Arrays.copyOf(intRowsArr, intCount * 2);
+        }
+
+        intRowsArr[intCount]        = intRow;
+        intRowsByUserArr[intUser]   = intRowsArr;
+        intUserRowCountArr[intUser] = intCount + 1;
+
+        if (intBook >= longScoreSumByBookArr.length)  // Grow per-book storage
+        {
+            int intLength = Math.max(intBook + 1, longScoreSumByBookArr.length * 2);
+            longScoreSumByBookArr  = Arrays.copyOf(longScoreSumByBookArr, intLength);
+            intScoreCountByBookArr = Arrays.copyOf(intScoreCountByBookArr, intLength);
+        }
+
+        longScoreSumByBookArr[intBook] += intScore;
+        intScoreCountByBookArr[intBook]++;
+
+        return intRow;
+    }
+
+
+    /**
+     * Finds the slot holding a key, or the empty slot where it would go (linear probing)
+     */
+    private int findSlot(long longKey)
+    {
+        int intMask = longKeyArr.length - 1;
+        int intSlot = (int) Hashing.mix(longKey) & intMask;
+
+        while (longKeyArr[intSlot] != longEmptyKey && longKeyArr[intSlot] != longKey)
+        {
+            intSlot = (intSlot + 1) & intMask;
+        }
+
+        return intSlot;
+    }
+
+
+    /**
+     * Rebuilds the hash table with a new capacity (a power of two)
+     */
+    private void rehash(int intCapacity)
+    {
+        longKeyArr    = newKeyArr(intCapacity);
+        intSlotRowArr = new int[intCapacity];
+
+        for (int intRow = 0; intRow < intRowCount; intRow++)
+        {
+            long longKey = ((long) intUserArr[intRow] << 32) | (intBookArr[intRow] & 0xFFFFFFFFL);
+            int  intSlot = findSlot(longKey);
+
+            longKeyArr[intSlot]    = longKey;
+            intSlotRowArr[intSlot] = intRow;
+        }
+    }
+
+
+    /**
+     * Allocates a key array with every slot marked empty
+     */
+    private static long[] newKeyArr(int intCapacity)
+    {
+        long[] longArr = new long[intCapacity];
+        Arrays.fill(longArr, longEmptyKey);
+        return longArr;
+    }
+}
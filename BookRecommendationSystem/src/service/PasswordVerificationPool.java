@@ -0,0 +1,203 @@
+/**
+ * File: PasswordVerificationPool.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Runs slow password hash checks, and the hashing done at registration,
+ *    recovery and rehash, on a small, fixed set of worker threads
+ *  - Queues at most a fixed number of waiting checks; further logins are
+ *    turned away at once instead of piling up
+ *  - Callers wait a bounded time for their result, so a login storm costs at
+ *    most the pool's threads and never starves recommendation or search work;
+ *    abandoned tasks still queued are purged, running ones finish first
+ *  - Counts accepted, rejected and timed-out checks for monitoring
+**/
+package service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import util.PasswordHasher;
+
+public class PasswordVerificationPool
+{
+    private final ThreadPoolExecutor executor;           // Bounded workers and queue
+    private final long               longTimeoutMillis;  // Longest a caller waits for its result
+
+    private final LongAdder longAccepted = new LongAdder();  // Checks run to completion
+    private final LongAdder longRejected = new LongAdder();  // Checks turned away (queue full)
+    private final LongAdder longTimedOut = new LongAdder();  // Checks abandoned by the caller
+
+
+    /**
+     * Constructs a verification pool
+     * @param intThreads - number of worker threads
+     * @param intQueueLimit - maximum number of checks waiting for a worker
+     * @param longTimeoutMillis - longest a caller waits for its result
+     * @throws IllegalArgumentException if a size is less than 1 or the timeout is negative
+     */
+    public PasswordVerificationPool(int intThreads, int intQueueLimit, long longTimeoutMillis)
+    {
+        if (intThreads < 1 || intQueueLimit < 1 || longTimeoutMillis < 0)  // Validate limits
+        {
+            throw new IllegalArgumentException("Threads and queue limit must be at least 1; timeout cannot be negative");
+        }
+
+        AtomicInteger intThreadCount = new AtomicInteger();  // Names worker threads
+
+        this.longTimeoutMillis = longTimeoutMillis;
+        this.executor = new ThreadPoolExecutor(intThreads, intThreads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<Runnable>(intQueueLimit), runnable ->
+            {
+                Thread thread = new Thread(runnable, "password-verify-" + intThreadCount.incrementAndGet());
+                thread.setDaemon(true);  // Never keep the application alive
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());  // Full queue: reject rather than run on the caller
+    }
+
+
+    /**
+     * Checks a password on a worker thread and waits for the answer
+     * @param strPassword - the password being tried
+     * @param strStored - the stored hash or legacy plain-text password
+     * @return - TRUE or FALSE, or null if the pool was too busy to answer in time
+     */
+    public Boolean verify(String strPassword, String strStored)
+    {
+        return runBounded(() -> PasswordHasher.verify(strPassword, strStored), Boolean.FALSE);
+    }
+
+
+    /**
+     * Hashes a password on a worker thread and waits for the result
+     * Registration, recovery and rehashing cost as much as a check, so they share the same limits
+     * @param strPassword - the password to hash
+     * @param intIterations - PBKDF2 iteration count
+     * @return - the encoded hash, or null if the pool was too busy to answer in time
+     */
+    public String hash(String strPassword, int intIterations)
+    {
+        return runBounded(() -> PasswordHasher.hash(strPassword, intIterations), null);
+    }
+
+
+    /**
+     * Runs one hashing task on the pool and waits at most the timeout for it
+     * @param task - the work to run
+     * @param failedResult - what to return if the task itself throws
+     * @return - the task's result, failedResult if it threw, or null if rejected or timed out
+     */
+    private <T> T runBounded(Callable<T> task, T failedResult)
+    {
+        Future<T> future;
+
+        try
+        {
+            future = executor.submit(task);
+        }
+        catch (RejectedExecutionException e)  // Queue full or pool shut down
+        {
+            longRejected.increment();
+            return null;
+        }
+
+        try
+        {
+            T result = future.get(longTimeoutMillis, TimeUnit.MILLISECONDS);
+            longAccepted.increment();
+            return result;
+        }
+        catch (TimeoutException e)  // Still queued or running: stop waiting for it
+        {
+            cancel(future);
+            longTimedOut.increment();
+            return null;
+        }
+        catch (InterruptedException e)  // Keep the interrupt visible to the caller
+        {
+            cancel(future);
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        catch (ExecutionException e)  // Hashing itself failed
+        {
+            longAccepted.increment();
+            return failedResult;
+        }
+    }
+
+
+    /**
+     * Cancels an abandoned task and removes it from the queue if it has not started
+     * A hash already running ignores the interrupt and keeps its worker until it
+     * finishes; only a queued task gives its queue slot back
+     * @param future - the abandoned task
+     */
+    private void cancel(Future<?> future)
+    {
+        future.cancel(true);
+        executor.purge();  // Cancelled tasks otherwise stay queued until a worker takes them
+    }
+
+
+    /**
+     * Gets the number of checks that returned an answer
+     * @return - the accepted count
+     */
+    public long getLongAcceptedCount()
+    {
+        return longAccepted.sum();
+    }
+
+
+    /**
+     * Gets the number of checks turned away because the queue was full
+     * @return - the rejected count
+     */
+    public long getLongRejectedCount()
+    {
+        return longRejected.sum();
+    }
+
+
+    /**
+     * Gets the number of checks abandoned after the timeout
+     * @return - the timed-out count
+     */
+    public long getLongTimedOutCount()
+    {
+        return longTimedOut.sum();
+    }
+
+
+    /**
+     * Stops the worker threads once queued checks finish
+     */
+    public void shutdown()
+    {
+        executor.shutdown();
+    }
+
+
+    /**
+     * Returns a string summary of the pool
+     * @return - formatted summary
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("PasswordVerificationPool[threads=%d, queued=%d, accepted=%d, rejected=%d, timedOut=%d]",
+            executor.getCorePoolSize(), executor.getQueue().size(),
+            longAccepted.sum(), longRejected.sum(), longTimedOut.sum());
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * File: PopularCandidateGenerator.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Candidates from the books trending this week, then the most borrowed
+ *    books in the catalog
+**/
+package service;
+
+import model.Book;
+
+class PopularCandidateGenerator implements CandidateGenerator
+{
+    private BookDatabase bookDatabase;  // Source of trending and popularity rankings
+    private int intLimit;               // Popular books to consider
+
+
+    /**
+     * Constructs the generator
+     * @param bookDatabase - the BookDatabase providing popular books
+     * @param intLimit - number of popular books to consider
+     */
+    PopularCandidateGenerator(BookDatabase bookDatabase, int intLimit)
+    {
+        this.bookDatabase = bookDatabase;
+        this.intLimit     = intLimit;
+    }
+
+
+    @Override
+    public String getStrName()
+    {
+        return "popular";
+    }
+
+
+    @Override
+    public void generate(CandidateRequest request, CandidatePool pool)
+    {
+        for (Book book : bookDatabase.getTrendingBooks(TrendingWindow.WEEK, intLimit))
+        {
+            if (!pool.offer(book))  // Stage or pool full
+            {
+                return;
+            }
+        }
+
+        for (Book book : bookDatabase.getPopularBooks(intLimit))
+        {
+            if (!pool.offer(book))  // Stage or pool full
+            {
+                return;
+            }
+        }
+    }
+}
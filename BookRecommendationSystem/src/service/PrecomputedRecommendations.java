@@ -0,0 +1,177 @@
+/**
+ * File: PrecomputedRecommendations.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Stores recommendation lists precomputed by BatchRecommendationJob
+ *  - Persists them in a compact binary file (usernames and book IDs only)
+ *  - Loads the file into a hash map so interactive lookups are O(1)
+ *  - Lets individual users be dropped once their lists become stale
+**/
+package service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class PrecomputedRecommendations
+{
+    private static final int intFileMagic = 0x50524331;  // "PRC1" file marker
+
+    private final Map<String, String[]> mapBookIdsByUser;  // User ID → recommended book IDs, best first
+
+
+    /**
+     * Constructs an empty store
+     */
+    public PrecomputedRecommendations()
+    {
+        mapBookIdsByUser = new ConcurrentHashMap<String, String[]>();
+    }
+
+
+    /**
+     * Records one user's precomputed list
+     * @param strUserId - the user's unique identifier
+     * @param strBookIdArr - recommended book IDs, best first
+     */
+    public void put(String strUserId, String[] strBookIdArr)
+    {
+        mapBookIdsByUser.put(strUserId, strBookIdArr);
+    }
+
+
+    /**
+     * Looks up one user's precomputed list
+     * @param strUserId - the user's unique identifier
+     * @return - recommended book IDs, best first; null if none was precomputed
+     */
+    public String[] get(String strUserId)
+    {
+        return mapBookIdsByUser.get(strUserId);
+    }
+
+
+    /**
+     * Drops one user's list, e.g. after they rate a book
+     * @param strUserId - the user's unique identifier
+     */
+    public void remove(String strUserId)
+    {
+        mapBookIdsByUser.remove(strUserId);
+    }
+
+
+    /**
+     * Gets the number of users with a precomputed list
+     * @return - the user count
+     */
+    public int getIntSize()
+    {
+        return mapBookIdsByUser.size();
+    }
+
+
+    /**
+     * Writes all lists to a binary file, replacing it atomically
+     * @param strPath - destination file path
+     * @return - true if the save succeeded; false otherwise
+     */
+    public boolean save(String strPath)
+    {
+        String strTempPath = strPath + ".tmp";
+
+        try (DataOutputStream out = new DataOutputStream(
+                 new BufferedOutputStream(new FileOutputStream(strTempPath))))  // File writer
+        {
+            out.writeInt(intFileMagic);
+            out.writeInt(mapBookIdsByUser.size());
+
+            for (Map.Entry<String, String[]> entry : mapBookIdsByUser.entrySet())
+            {
+                out.writeUTF(entry.getKey());
+                out.writeShort(entry.getValue().length);
+
+                for (String strBookId : entry.getValue())
+                {
+                    out.writeUTF(strBookId);
+                }
+            }
+        }
+        catch (IOException e)  // Write failure
+        {
+            System.out.println("Failed to save precomputed recommendations. Please check file permissions.");
+            return false;
+        }
+
+        try
+        {
+            Files.move(Paths.get(strTempPath), Paths.get(strPath),
+                       StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        }
+        catch (IOException e)  // Replace failure
+        {
+            System.out.println("Failed to replace precomputed recommendations. Please check file permissions.");
+            return false;
+        }
+    }
+
+
+    /**
+     * Loads lists from a binary file
+     * @param strPath - source file path
+     * @return - the loaded store, or null if the file is missing or invalid
+     */
+    public static PrecomputedRecommendations load(String strPath)
+    {
+        if (!new File(strPath).exists())  // Batch job has not run yet
+        {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(
+                 new BufferedInputStream(new FileInputStream(strPath))))  // File reader
+        {
+            if (in.readInt() != intFileMagic)  // Not a precomputed recommendation file
+            {
+                System.out.println("The precomputed recommendation file format is incorrect.");
+                return null;
+            }
+
+            PrecomputedRecommendations store = new PrecomputedRecommendations();
+            int intUserCount = in.readInt();
+
+            for (int intI = 0; intI < intUserCount; intI++)
+            {
+                String   strUserId    = in.readUTF();
+                String[] strBookIdArr = new String[in.readUnsignedShort()];
+
+                for (int intJ = 0; intJ < strBookIdArr.length; intJ++)
+                {
+                    strBookIdArr[intJ] = in.readUTF();
+                }
+
+                store.put(strUserId, strBookIdArr);
+            }
+
+            return store;
+        }
+        catch (IOException e)  // Read failure
+        {
+            System.out.println("Failed to load precomputed recommendations. Please check the file.");
+            return null;
+        }
+    }
+}
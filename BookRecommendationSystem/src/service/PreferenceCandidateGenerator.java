@@ -0,0 +1,55 @@
+/**
+ * File: PreferenceCandidateGenerator.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Candidates from the user's preferred author and genre via BookDatabase indexes
+ *  - Author matches come first since they carry both author and (usually) genre weight
+**/
+package service;
+
+import model.Book;
+
+class PreferenceCandidateGenerator implements CandidateGenerator
+{
+    private BookDatabase bookDatabase;  // Source of genre/author indexes
+
+
+    /**
+     * Constructs the generator
+     * @param bookDatabase - the BookDatabase providing genre/author indexes
+     */
+    PreferenceCandidateGenerator(BookDatabase bookDatabase)
+    {
+        this.bookDatabase = bookDatabase;
+    }
+
+
+    @Override
+    public String getStrName()
+    {
+        return "preference";
+    }
+
+
+    @Override
+    public void generate(CandidateRequest request, CandidatePool pool)
+    {
+        for (Book book : bookDatabase.getBooksByAuthor(request.strPrefAuthor))
+        {
+            if (!pool.offer(book))  // Stage or pool full
+            {
+                return;
+            }
+        }
+
+        for (Book book : bookDatabase.getBooksByGenre(request.strPrefGenre))
+        {
+            if (!pool.offer(book))  // Stage or pool full
+            {
+                return;
+            }
+        }
+    }
+}
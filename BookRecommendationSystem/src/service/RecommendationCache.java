@@ -0,0 +1,215 @@
+/**
+ * File: RecommendationCache.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Bounded least-recently-used cache of recommendation lists keyed by user
+ *  - Entries are invalidated per user (new rating) or all at once (weight or mode changes)
+ *  - Entries also expire once catalog activity (borrows plus ratings) has drifted
+ *    past a relative threshold since they were computed
+ *  - Exposes size, hit ratio, eviction and invalidation counts
+**/
+package service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import model.Book;
+
+public class RecommendationCache
+{
+    private final int    intCapacity;        // Maximum number of cached users
+    private final double dblDriftThreshold;  // Relative catalog activity change that expires an entry
+
+    private final LinkedHashMap<String, CacheEntry> mapEntryByUser;  // Access-ordered entries
+
+    private long longHitCount          = 0;  // Lookups served from the cache
+    private long longMissCount         = 0;  // Lookups that had to recompute
+    private long longEvictionCount     = 0;  // Entries dropped for capacity
+    private long longInvalidationCount = 0;  // Entries dropped as stale
+
+
+    /**
+     * Constructs a cache with the given bounds
+     * @param intCapacity - maximum number of cached users
+     * @param dblDriftThreshold - relative catalog activity change that expires an entry (e.g. 0.05)
+     * @throws IllegalArgumentException if capacity is less than 1 or the threshold is negative
+     */
+    public RecommendationCache(int intCapacity, double dblDriftThreshold)
+    {
+        if (intCapacity < 1 || dblDriftThreshold < 0.0)  // Validate bounds
+        {
+            throw new IllegalArgumentException("Capacity must be at least 1 and drift threshold non-negative");
+        }
+
+        this.intCapacity       = intCapacity;
+        this.dblDriftThreshold = dblDriftThreshold;
+        this.mapEntryByUser    = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest)
+            {
+                if (size() > RecommendationCache.this.intCapacity)  // Over capacity: evict LRU
+                {
+                    longEvictionCount++;
+                    return true;
+                }
+
+                return false;
+            }
+        };
+    }
+
+
+    /**
+     * Looks up a user's cached recommendations
+     * @param strUserId - the user's unique identifier
+     * @param intCount - number of recommendations requested
+     * @param longCatalogActivity - current borrow plus rating count of the catalog
+     * @return - a copy of the cached list, or null on a miss
+     */
+    public synchronized ArrayList<Book> get(String strUserId, int intCount, long longCatalogActivity)
+    {
+        CacheEntry entry = mapEntryByUser.get(strUserId);
+
+        if (entry != null && hasDrifted(entry, longCatalogActivity))  // Catalog moved on
+        {
+            mapEntryByUser.remove(strUserId);
+            longInvalidationCount++;
+            entry = null;
+        }
+
+        if (entry == null || entry.intCount < intCount)  // Absent, or too short for this request
+        {
+            longMissCount++;
+            return null;
+        }
+
+        longHitCount++;
+        return new ArrayList<Book>(entry.bookList.subList(0, Math.min(intCount, entry.bookList.size())));
+    }
+
+
+    /**
+     * Stores a freshly computed recommendation list
+     * @param strUserId - the user's unique identifier
+     * @param intCount - number of recommendations that were requested
+     * @param bookList - the computed recommendations
+     * @param longCatalogActivity - borrow plus rating count when the list was computed
+     */
+    public synchronized void put(String strUserId, int intCount, List<Book> bookList, long longCatalogActivity)
+    {
+        mapEntryByUser.put(strUserId, new CacheEntry(intCount, new ArrayList<Book>(bookList), longCatalogActivity));
+    }
+
+
+    /**
+     * Drops one user's cached recommendations
+     * @param strUserId - the user's unique identifier
+     */
+    public synchronized void invalidate(String strUserId)
+    {
+        if (mapEntryByUser.remove(strUserId) != null)
+        {
+            longInvalidationCount++;
+        }
+    }
+
+
+    /**
+     * Drops every cached recommendation list
+     */
+    public synchronized void invalidateAll()
+    {
+        longInvalidationCount += mapEntryByUser.size();
+        mapEntryByUser.clear();
+    }
+
+
+    /**
+     * Gets the number of cached users
+     * @return - the cache size
+     */
+    public synchronized int getIntSize()
+    {
+        return mapEntryByUser.size();
+    }
+
+
+    /**
+     * Gets the fraction of lookups served from the cache
+     * @return - hit ratio between 0.0 and 1.0 (0.0 before any lookup)
+     */
+    public synchronized double getDblHitRatio()
+    {
+        long longTotal = longHitCount + longMissCount;
+        return (longTotal == 0) ? 0.0 : (double) longHitCount / longTotal;
+    }
+
+
+    /**
+     * Gets the number of entries evicted for capacity
+     * @return - the eviction count
+     */
+    public synchronized long getLongEvictionCount()
+    {
+        return longEvictionCount;
+    }
+
+
+    /**
+     * Gets the number of entries dropped as stale
+     * @return - the invalidation count
+     */
+    public synchronized long getLongInvalidationCount()
+    {
+        return longInvalidationCount;
+    }
+
+
+    /**
+     * Checks whether catalog activity has drifted past the threshold since an entry was computed
+     */
+    private boolean hasDrifted(CacheEntry entry, long longCatalogActivity)
+    {
+        long longDelta = Math.abs(longCatalogActivity - entry.longCatalogActivity);
+        return longDelta > dblDriftThreshold * Math.max(1L, entry.longCatalogActivity);
+    }
+
+
+    /**
+     * Returns a string summary of cache statistics
+     * @return - formatted summary
+     */
+    @Override
+    public synchronized String toString()
+    {
+        return String.format(
+            "RecommendationCache[size=%d/%d, hitRatio=%.2f, hits=%d, misses=%d, evictions=%d, invalidations=%d]",
+            mapEntryByUser.size(), intCapacity, getDblHitRatio(),
+            longHitCount, longMissCount, longEvictionCount, longInvalidationCount
+        );
+    }
+
+
+    /**
+     * Inner class holding one user's cached recommendations
+     */
+    private static class CacheEntry
+    {
+        final int             intCount;             // Number of recommendations requested
+        final ArrayList<Book> bookList;             // Cached recommendations
+        final long            longCatalogActivity;  // Borrow plus rating count at compute time
+
+
+        CacheEntry(int intCount, ArrayList<Book> bookList, long longCatalogActivity)
+        {
+            this.intCount            = intCount;
+            this.bookList            = bookList;
+            this.longCatalogActivity = longCatalogActivity;
+        }
+    }
+}
@@ -4,13 +4,43 @@
  * Date: 2025-08-18
  *
  * Description:
- *  - Loads existing user ratings from CSV on initialization
- *  - Generates personalized book recommendations based on:
+ *  - Loads existing user ratings from the CSV snapshot and rating log on initialization
+ *  - Generates personalized book recommendations from a bounded candidate pool
+ *    (preferred genre/author, CF neighbors, similar readers, popular books,
+ *    and the best columnar catalog scores only when those come up short)
+ *    scored by:
  *      - User's preferred genre and author
  *      - Book average rating
  *      - Book popularity (borrow count)
- *  - Persists new or updated ratings back to CSV and updates book average ratings
+ *  - Persists new or updated ratings to an append-only log (compacted into CSV
+ *    in the background) and keeps book average ratings current from per-book
+ *    running totals, writing book data in batches
+ *  - Maps usernames and book IDs to dense ints and stores ratings as packed
+ *    (user, book, score) rows, indexed by user, so lookups avoid scanning all
+ *    ratings and no Rating object is kept per stored rating
+ *  - Caches each user's recommendations until their ratings, the weights or
+ *    the catalog change enough to matter
+ *  - Serves nightly precomputed lists (see BatchRecommendationJob) with books the
+ *    user has since rated or borrowed filtered out, topped up from the live path
  *  - Allows dynamic adjustment of recommendation weights for fine-tuning
+ *  - Tunes weights online with a Thompson-sampling bandit over weight
+ *    configurations, rewarded by clicks, borrows and ratings of served books
+ *  - Treats borrows as implicit feedback (configurable weight) in preferred
+ *    genre/author and item-item collaborative filtering, so users are
+ *    personalized before they rate anything; borrows from earlier sessions
+ *    are replayed at their original times
+ *  - Keeps preferred genre/author as time-decayed per-user counters updated
+ *    on each rating or borrow, so lookups are O(1) and favour recent taste
+ *  - Starts users with no history on books trending over the last day,
+ *    falling back to all-time popular books
+ *  - Offers a deadline-bound variant that returns the best recommendations
+ *    found when its time budget runs out, flagged as incomplete
+ *  - Diversifies lists by genre and author with an MMR reranker over the
+ *    scored candidate pool (configurable weight, 0.5 by default; 0 turns it off)
+ *  - Optionally recommends from item-item collaborative filtering neighbors
+ *    or from an offline-trained matrix factorization model
+ *  - Finds similar readers through a MinHash/LSH index for "readers like you
+ *    also enjoyed" lists and as a source of pipeline candidates
  * 
  * Work Log (Lucas Wu):
  *  2025-08-18:
@@ -37,24 +67,70 @@ package service;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import model.Book;
+import model.BorrowEvent;
 import model.Rating;
 import util.FileUtils;
+import util.RatingLog;
 
 public class RecommendationEngine 
 {
     private BookDatabase bookDatabase;      // Source of book data
-    private List<Rating> ratingList;        // All user ratings
+    private RatingLog ratingLog;            // Append-only persistence for rating upserts
+
+    private IdDictionary userIdDictionary;  // Username ↔ dense user ordinal
+    private IdDictionary bookIdDictionary;  // Book ID ↔ dense book ordinal
+    private PackedRatingTable ratingTable;  // Current ratings as packed rows (last write wins)
 
     private double dblGenreWeight      = 0.4;  // Weight for matching genre
     private double dblAuthorWeight     = 0.3;  // Weight for matching author
     private double dblRatingWeight     = 0.2;  // Weight for book's average rating
     private double dblPopularityWeight = 0.1;  // Weight for borrow count popularity
+    private volatile double dblImplicitWeight = 0.5;  // One borrow counts as this many liked ratings
+
+    private static final int intPreferenceHalfLifeDays = 180;  // Age at which a rating or borrow counts half
+    private final DecayedPreferences decayedPreferences =
+        new DecayedPreferences(intPreferenceHalfLifeDays);     // Preferred genre/author per user
+
+    private static final double dblClickReward  = 0.2;  // Bandit reward for opening a served book
+    private static final double dblBorrowReward = 0.6;  // Bandit reward for borrowing a served book
+
+    private static final double dblIncumbentPriorLists  = 50;   // Manual arm starts as if 50 lists had been served
+    private static final double dblIncumbentPriorRate   = 0.2;  // ... at this reward rate
+    private static final double dblChallengerPriorLists = 15;   // Other arms start as 15 unrewarded lists (~15% of traffic in total)
+
+    private final WeightBandit weightBandit;            // Chooses a weight configuration per computed list
+    private volatile boolean isWeightTuningEnabled = true;  // False serves only the manual weights
+    private final Map<String, ServedList> mapServedByUser =
+        new ConcurrentHashMap<String, ServedList>();    // User → last computed list and its arm
+
+    private static final int intSimilarNeighborLimit = 50;  // Neighbors kept per book for item-item CF
+    private static final int intSimilarReaderLimit   = 20;  // Similar readers consulted per request
+
+    private RecommendationMode  recommendationMode = RecommendationMode.CONTENT_BASED;  // Active strategy
+    private volatile ItemSimilarityIndex itemSimilarityIndex;  // Built on demand for item-item CF
+    private volatile MatrixFactorizationModel factorizationModel;  // Loaded on demand for latent-factor scoring
+    private final AtomicBoolean isIndexBuildPending = new AtomicBoolean(false);  // Background index build running
+    private final AtomicBoolean isModelLoadPending  = new AtomicBoolean(false);  // Background model load running
+    private volatile PrecomputedRecommendations precomputedRecommendations;  // Last batch results, if any
+
+    private final RecommendationCache recommendationCache =
+        new RecommendationCache(10000, 0.05);  // Per-user results; expire after 5% catalog activity drift
+
+    private final RecommendationPipeline recommendationPipeline;  // Candidate generation and ranking
+    private final DiversityReranker diversityReranker;            // Optional post-ranking reorder for variety
+
+    private final UserSimilarityIndex userSimilarityIndex =
+        new UserSimilarityIndex(16, 2);  // 16 bands × 2 rows: readers sharing ~30% of liked books usually collide
 
 
     /**
@@ -64,8 +140,69 @@ public class RecommendationEngine
     public RecommendationEngine(BookDatabase bookDatabase) 
     {
         this.bookDatabase = bookDatabase;
-        this.ratingList   = FileUtils.loadRatingsFromCSV();  // Load ratings from storage
-        System.out.println("Loaded " + ratingList.size() + " ratings");
+        this.ratingLog    = new RatingLog(FileUtils.getRatingFilePath(), FileUtils.getRatingLogFilePath());
+
+        this.userIdDictionary = new IdDictionary();
+        this.bookIdDictionary = new IdDictionary();
+        this.ratingTable      = new PackedRatingTable();
+
+        for (Rating rating : ratingLog.load())  // Replay snapshot and log, building indexes once
+        {
+            applyRating(rating);
+        }
+
+        System.out.println("Loaded " + ratingTable.size() + " ratings");
+
+        for (int intUser = 0; intUser < userIdDictionary.size(); intUser++)  // Sign every reader once
+        {
+            String strUserId = userIdDictionary.getStrId(intUser);
+            userSimilarityIndex.updateUser(strUserId, getUserRatings(strUserId));
+        }
+
+        this.weightBandit = new WeightBandit(
+            new String[] { "manual", "genre", "author", "quality", "popular" },
+            new double[][] 
+            {
+                manualWeights(),             // Arm 0 follows adjustWeights
+                { 0.50, 0.25, 0.15, 0.10 },  // Lean on genre
+                { 0.30, 0.45, 0.15, 0.10 },  // Lean on author
+                { 0.30, 0.20, 0.40, 0.10 },  // Lean on average rating
+                { 0.30, 0.20, 0.20, 0.30 }   // Lean on popularity
+            },
+            new double[] { 1.0 + dblIncumbentPriorLists * dblIncumbentPriorRate, 1, 1, 1, 1 },
+            new double[] { 1.0 + dblIncumbentPriorLists * (1.0 - dblIncumbentPriorRate),
+                           dblChallengerPriorLists, dblChallengerPriorLists,
+                           dblChallengerPriorLists, dblChallengerPriorLists });
+
+        for (BorrowEvent event : bookDatabase.getBorrowHistory().getRetainedEvents())  // Borrows from earlier sessions
+        {
+            Book book = bookDatabase.findBookById(event.getStrBookId());
+            decayedPreferences.add(event.getStrUserId(), book, dblImplicitWeight, event.getLongTimestamp());
+        }
+
+        bookDatabase.addBorrowListener((strUserId, book) ->  // A borrow changes that user's implicit profile
+        {
+            rewardServed(strUserId, book.getStrId(), dblBorrowReward);
+            decayedPreferences.add(strUserId, book, dblImplicitWeight, System.currentTimeMillis());
+            recommendationCache.invalidate(strUserId);
+            dropPrecomputed(strUserId);
+        });
+
+        this.precomputedRecommendations =
+            PrecomputedRecommendations.load(FileUtils.getPrecomputedRecommendationFilePath());
+
+        this.recommendationPipeline = new RecommendationPipeline(500);  // Candidates scored per request
+        recommendationPipeline.addStage(new PreferenceCandidateGenerator(bookDatabase), 250);
+        recommendationPipeline.addStage(
+            new CollaborativeCandidateGenerator(() -> itemSimilarityIndex, bookDatabase), 150);
+        recommendationPipeline.addStage(
+            new SimilarReaderCandidateGenerator(userSimilarityIndex, this::getUserRatings, bookDatabase), 100);
+        recommendationPipeline.addStage(new PopularCandidateGenerator(bookDatabase, 100), 100);
+        recommendationPipeline.addStage(
+            new ScoredCatalogCandidateGenerator(bookDatabase, this::scoreCatalog), 100, true);  // Only when the pool is short
+
+        this.diversityReranker = new DiversityReranker(bookDatabase.getCatalogColumns());  // Mild diversity by default
+        recommendationPipeline.setDiversityReranker(diversityReranker);
     }
 
 
@@ -76,31 +213,601 @@ public class RecommendationEngine
      * @return - list of recommended books
      */
     public List<Book> generateRecommendations(String strUserId, int intCount) 
+    {
+        return serveRecommendations(strUserId, intCount, Long.MAX_VALUE).getBookList();
+    }
+
+
+    /**
+     * Generates top-N book recommendations for a user within a time budget;
+     * when the budget runs out, returns the best recommendations found so far
+     * @param strUserId - the user's unique identifier
+     * @param intCount - the maximum number of recommendations
+     * @param longBudgetMillis - time allowed for generating candidates and ranking them; budgets too large
+     *                           to represent (e.g. Long.MAX_VALUE) mean no deadline
+     * @return - recommended books and whether the whole candidate pipeline ran
+     * @throws IllegalArgumentException if the budget is negative
+     */
+    public RecommendationResult generateRecommendations(String strUserId, int intCount, long longBudgetMillis) 
+    {
+        if (longBudgetMillis < 0)  // Validate budget
+        {
+            throw new IllegalArgumentException("Time budget must not be negative");
+        }
+
+        return serveRecommendations(strUserId, intCount, deadlineAfter(longBudgetMillis));
+    }
+
+
+    /**
+     * Converts a time budget into a System.nanoTime() deadline, saturating instead of overflowing
+     * @param longBudgetMillis - the budget (not negative)
+     * @return - the deadline, or Long.MAX_VALUE (no deadline) if it lies beyond what a long can hold
+     */
+    private static long deadlineAfter(long longBudgetMillis) 
+    {
+        long longBudgetNanos = TimeUnit.MILLISECONDS.toNanos(longBudgetMillis);  // Saturates at Long.MAX_VALUE
+
+        try 
+        {
+            return Math.addExact(System.nanoTime(), longBudgetNanos);
+        }
+        catch (ArithmeticException e)  // Past the end of the clock: treat as unbounded
+        {
+            return Long.MAX_VALUE;
+        }
+    }
+
+
+    /**
+     * Serves recommendations from the cache, the batch lists or the pipeline
+     * @param strUserId - the user's unique identifier
+     * @param intCount - the maximum number of recommendations
+     * @param longDeadlineNanos - System.nanoTime() value to stop at, or Long.MAX_VALUE for no deadline
+     * @return - recommended books and whether they are complete
+     */
+    private RecommendationResult serveRecommendations(String strUserId, int intCount, long longDeadlineNanos) 
+    {
+        long longActivity = catalogActivity();  // Snapshot before computing
+        List<Book> listCached = recommendationCache.get(strUserId, intCount, longActivity);
+
+        if (listCached != null)  // Nothing relevant changed since last time
+        {
+            ServedList served = mapServedByUser.get(strUserId);
+
+            if (served != null)  // Credit the arm that produced the cached list
+            {
+                weightBandit.recordServed(served.intArm);
+            }
+
+            return new RecommendationResult(listCached, true);
+        }
+
+        int intArm = isWeightTuningEnabled ? weightBandit.selectArm() : 0;  // Weight configuration to try
+
+        List<Book> listPrecomputed = (intArm == 0) ? lookupPrecomputed(strUserId, intCount) : null;  // Batch used manual weights
+        RecommendationResult result;
+
+        if (listPrecomputed != null && listPrecomputed.size() == intCount)  // Batch list still covers the request
+        {
+            result = new RecommendationResult(listPrecomputed, true);
+        }
+        else 
+        {
+            result = computeRecommendations(strUserId, intCount, bookDatabase.getAllBooks(),
+                                            weightBandit.getArmWeights(intArm), longDeadlineNanos);
+
+            if (listPrecomputed != null)  // Keep the surviving batch picks first, then top up from the live list
+            {
+                result = new RecommendationResult(
+                    topUpPrecomputed(strUserId, listPrecomputed, result.getBookList(), intCount), result.isComplete());
+            }
+        }
+
+        if (result.isComplete())  // Partial lists are not cached, so the next request can do better
+        {
+            recommendationCache.put(strUserId, intCount, result.getBookList(), longActivity);
+        }
+
+        mapServedByUser.put(strUserId, new ServedList(intArm, result.getBookList()));
+        weightBandit.recordServed(intArm);
+
+        return result;
+    }
+
+
+    /**
+     * Looks up a user's list from the last batch precomputation
+     * The batch file may predate the user's latest ratings and borrows (e.g. after a
+     * restart), so books the user has rated or recently borrowed are filtered out
+     * @param strUserId - the user's unique identifier
+     * @param intCount - the maximum number of recommendations
+     * @return - the still-relevant batch picks, best first (possibly fewer than intCount),
+     *           or null if the batch has no list for the user
+     */
+    private List<Book> lookupPrecomputed(String strUserId, int intCount) 
+    {
+        PrecomputedRecommendations store = precomputedRecommendations;
+        String[] strBookIdArr = (store == null) ? null : store.get(strUserId);
+
+        if (strBookIdArr == null)  // Not part of the last batch
+        {
+            return null;
+        }
+
+        Set<String> excludedBookIdSet = getSeenBookIds(strUserId);
+        List<Book>  listResult        = new ArrayList<Book>(intCount);  // Recommended books
+
+        for (int intI = 0; intI < strBookIdArr.length && listResult.size() < intCount; intI++) 
+        {
+            Book book = bookDatabase.findBookById(strBookIdArr[intI]);
+
+            if (book != null && !excludedBookIdSet.contains(book.getStrId()))  // Skip books gone from the catalog or already seen
+            {
+                listResult.add(book);
+            }
+        }
+
+        return listResult;
+    }
+
+
+    /**
+     * Appends live recommendations to a short batch list, skipping duplicates and books the user has seen
+     * @param strUserId - the user's unique identifier
+     * @param listPrecomputed - the filtered batch picks
+     * @param listLive - the live recommendations
+     * @param intCount - the maximum number of recommendations
+     * @return - the combined list, batch picks first
+     */
+    private List<Book> topUpPrecomputed(String strUserId, List<Book> listPrecomputed, List<Book> listLive, int intCount) 
+    {
+        Set<String> excludedBookIdSet = getSeenBookIds(strUserId);
+        List<Book>  listResult        = new ArrayList<Book>(listPrecomputed);  // Batch picks first
+        Set<Book>   bookSetChosen     = new HashSet<Book>(listPrecomputed);
+
+        for (Book book : listLive) 
+        {
+            if (listResult.size() >= intCount)  // Full
+            {
+                break;
+            }
+
+            if (!excludedBookIdSet.contains(book.getStrId()) && bookSetChosen.add(book)) 
+            {
+                listResult.add(book);
+            }
+        }
+
+        return listResult;
+    }
+
+
+    /**
+     * Looks up the IDs of books a user has rated or recently borrowed
+     * @param strUserId - the user's unique identifier
+     * @return - set of book IDs; empty if none
+     */
+    private Set<String> getSeenBookIds(String strUserId) 
+    {
+        Set<String> setResult = new HashSet<String>(getRatedBookIds(strUserId));
+        setResult.addAll(bookDatabase.getBorrowHistory().getRecentBookIds(strUserId));
+        return setResult;
+    }
+
+
+    /**
+     * Computes top-N book recommendations for a user with the manual weights, bypassing the cache
+     * Safe to call from several threads at once while no ratings are being added
+     * @param strUserId - the user's unique identifier
+     * @param intCount - the maximum number of recommendations
+     * @param catalogList - read-only catalog snapshot to score
+     * @return - list of recommended books
+     */
+    List<Book> computeRecommendations(String strUserId, int intCount, List<Book> catalogList) 
+    {
+        return computeRecommendations(strUserId, intCount, catalogList, manualWeights(), Long.MAX_VALUE).getBookList();
+    }
+
+
+    /**
+     * Builds recommendations for a user with no history: books trending over
+     * the last day, topped up with the most borrowed books of all time
+     * @param intCount - the maximum number of recommendations
+     * @return - list of books, trending first
+     */
+    private ArrayList<Book> getColdStartBooks(int intCount) 
+    {
+        ArrayList<Book> bookListResult = bookDatabase.getTrendingBooks(TrendingWindow.DAY, intCount);
+
+        if (bookListResult.size() < intCount)  // Too few recent borrows
+        {
+            Set<Book> bookSetSeen = new HashSet<Book>(bookListResult);  // Already included
+
+            for (Book book : bookDatabase.getPopularBooks(intCount))
+            {
+                if (bookListResult.size() >= intCount)  // Enough results
+                {
+                    break;
+                }
+
+                if (bookSetSeen.add(book))  // Skip books already trending
+                {
+                    bookListResult.add(book);
+                }
+            }
+        }
+
+        return bookListResult;
+    }
+
+
+    /**
+     * Computes top-N book recommendations for a user, bypassing the cache
+     * @param strUserId - the user's unique identifier
+     * @param intCount - the maximum number of recommendations
+     * @param catalogList - read-only catalog snapshot to score
+     * @param dblWeightArr - scoring weights {genre, author, rating, popularity}
+     * @param longDeadlineNanos - System.nanoTime() value to stop at, or Long.MAX_VALUE for no deadline
+     * @return - recommended books and whether the candidate pipeline ran to completion
+     */
+    private RecommendationResult computeRecommendations(String strUserId, int intCount, List<Book> catalogList,
+                                                        double[] dblWeightArr, long longDeadlineNanos) 
     {
         List<Rating> userRatingList = getUserRatings(strUserId);  // Fetch user's past ratings
+        Set<String>  ratedBookIdSet = getRatedBookIds(strUserId); // IDs the user already rated
+        List<String> borrowedBookIdList = bookDatabase.getBorrowHistory().getRecentBookIds(strUserId);
+
+        if (userRatingList.isEmpty() && borrowedBookIdList.isEmpty())  // Cold start: no history
+        {
+            return new RecommendationResult(getColdStartBooks(intCount), true);  // Fallback to trending, then popular books
+        }
+
+        boolean isDeadlineBound = (longDeadlineNanos != Long.MAX_VALUE);
+
+        if (recommendationMode == RecommendationMode.ITEM_COLLABORATIVE) 
+        {
+            if (isDeadlineBound && itemSimilarityIndex == null)  // Never build the index inside a deadline
+            {
+                startInBackground(isIndexBuildPending, this::rebuildItemSimilarityIndex, "item-similarity-build");
+            }
+            else 
+            {
+                List<Book> listCollaborative = generateCollaborativeRecommendations(
+                    userRatingList, borrowedBookIdList, ratedBookIdSet, intCount);
+
+                if (!listCollaborative.isEmpty())  // Fall back to content scoring without neighbor signal
+                {
+                    return new RecommendationResult(listCollaborative, true);
+                }
+            }
+        }
+
+        if (recommendationMode == RecommendationMode.MATRIX_FACTORIZATION) 
+        {
+            if (isDeadlineBound && factorizationModel == null)  // Never read the model file inside a deadline
+            {
+                startInBackground(isModelLoadPending, this::loadFactorizationModel, "factor-model-load");
+            }
+            else 
+            {
+                List<Book> listFactorized = generateFactorizedRecommendations(
+                    strUserId, ratedBookIdSet, intCount, longDeadlineNanos);
+
+                if (!listFactorized.isEmpty())  // Users unknown to the model fall back to content scoring
+                {
+                    // The catalog scan only stops once the deadline has passed, so a list finished
+                    // in time is complete; one returned after the deadline may be partial
+                    return new RecommendationResult(listFactorized,
+                        !isDeadlineBound || System.nanoTime() < longDeadlineNanos);
+                }
+            }
+        }
+
+        String strPrefGenre  = decayedPreferences.getPreferredGenre(strUserId);   // O(1) reads
+        String strPrefAuthor = decayedPreferences.getPreferredAuthor(strUserId);
+
+        CandidateRequest request = new CandidateRequest(
+            strUserId, userRatingList, ratedBookIdSet, borrowedBookIdList, strPrefGenre, strPrefAuthor, catalogList,
+            dblWeightArr, longDeadlineNanos);
+
+        return recommendationPipeline.run(request, intCount,
+            book -> calculateMatchScore(book, strPrefGenre, strPrefAuthor, dblWeightArr));  // Score only the pool
+    }
+
+
+    /**
+     * Recommends books from item-item neighbors of the user's highly rated and borrowed books
+     * @param userRatingList - the user's ratings
+     * @param borrowedBookIdList - IDs of books the user recently borrowed
+     * @param ratedBookIdSet - IDs of books the user already rated
+     * @param intCount - the maximum number of recommendations
+     * @return - list of recommended books; empty if no neighbor signal exists
+     */
+    private List<Book> generateCollaborativeRecommendations(List<Rating> userRatingList, List<String> borrowedBookIdList,
+                                                            Set<String> ratedBookIdSet, int intCount) 
+    {
+        ItemSimilarityIndex index = itemSimilarityIndex;
+
+        if (index == null)  // Build lazily on first use
+        {
+            index = rebuildItemSimilarityIndex();
+        }
+
+        List<Book> listResult = new ArrayList<Book>();  // Recommended books
+
+        for (String strBookId : index.recommend(userRatingList, borrowedBookIdList, dblImplicitWeight,
+                                                  ratedBookIdSet, intCount)) 
+        {
+            Book book = bookDatabase.findBookById(strBookId);
+
+            if (book != null)  // Ignore ratings of books no longer in the catalog
+            {
+                listResult.add(book);
+            }
+        }
+
+        return listResult;
+    }
+
+
+    /**
+     * Recommends the books with the highest dot product against the user's latent factors
+     * @param strUserId - the user's unique identifier
+     * @param ratedBookIdSet - IDs of books the user already rated
+     * @param intCount - the maximum number of recommendations
+     * @param longDeadlineNanos - System.nanoTime() value to stop scanning at, or Long.MAX_VALUE for no deadline
+     * @return - list of recommended books; empty if no model exists or the user is unknown to it
+     */
+    private List<Book> generateFactorizedRecommendations(String strUserId, Set<String> ratedBookIdSet, int intCount,
+                                                         long longDeadlineNanos) 
+    {
+        MatrixFactorizationModel model = loadFactorizationModel();
+
+        if (model == null)  // No offline-trained model yet
+        {
+            return new ArrayList<Book>();
+        }
+
+        List<Book> listResult = new ArrayList<Book>();  // Recommended books
+
+        for (String strBookId : model.recommend(strUserId, ratedBookIdSet, intCount, longDeadlineNanos)) 
+        {
+            Book book = bookDatabase.findBookById(strBookId);
+
+            if (book != null)  // Ignore books no longer in the catalog
+            {
+                listResult.add(book);
+            }
+        }
+
+        return listResult;
+    }
+
+
+    /**
+     * Gets the factorization model, loading the offline-trained one on first use
+     * @return - the model, or null if none has been trained yet
+     */
+    private MatrixFactorizationModel loadFactorizationModel() 
+    {
+        MatrixFactorizationModel model = factorizationModel;
+
+        if (model == null)  // Load lazily
+        {
+            model = MatrixFactorizationModel.load(FileUtils.getFactorModelFilePath());
+
+            if (model != null) 
+            {
+                factorizationModel = model;
+            }
+        }
+
+        return model;
+    }
 
-        if (userRatingList.isEmpty())  // Cold start: no history
+
+    /**
+     * Runs a slow warm-up task (index build, model load) on a daemon thread unless one is already running
+     * Deadline-bound requests use this instead of doing the work inline
+     * @param isPending - flag marking the task as running
+     * @param task - the work to do
+     * @param strThreadName - name of the worker thread
+     */
+    private static void startInBackground(AtomicBoolean isPending, Runnable task, String strThreadName) 
+    {
+        if (!isPending.compareAndSet(false, true))  // Already under way
         {
-            return bookDatabase.getPopularBooks(intCount);  // Fallback to popular books
+            return;
         }
 
-        String strPrefGenre  = calculatePreferredGenre(userRatingList);
-        String strPrefAuthor = calculatePreferredAuthor(userRatingList);
+        Thread thread = new Thread(() ->
+        {
+            try 
+            {
+                task.run();
+            }
+            finally 
+            {
+                isPending.set(false);
+            }
+        }, strThreadName);
+
+        thread.setDaemon(true);  // Never keep the application alive
+        thread.start();
+    }
 
-        Map<Book, Double> mapScoreByBook = new HashMap<Book, Double>();  // Scoring map
 
-        for (Book book : bookDatabase.getAllBooks()) 
+    /**
+     * Recommends books highly rated by the readers most similar to a user
+     * ("readers like you also enjoyed"), weighting each by reader similarity
+     * @param strUserId - the user's unique identifier
+     * @param intCount - the maximum number of recommendations
+     * @return - list of recommended books; empty if no similar readers were found
+     */
+    public List<Book> generateSimilarReaderRecommendations(String strUserId, int intCount) 
+    {
+        Set<String> ratedBookIdSet = getRatedBookIds(strUserId);  // IDs the user already rated
+        Map<String, Double> mapScoreByBook = new HashMap<String, Double>();  // Book ID → weighted score
+
+        for (String strNeighbor : userSimilarityIndex.findNeighbors(strUserId, intSimilarReaderLimit)) 
         {
-            if (hasRatedBook(userRatingList, book.getStrId()))  // Skip already rated
+            double dblSimilarity = userSimilarityIndex.estimateSimilarity(strUserId, strNeighbor);
+
+            for (Rating rating : getUserRatings(strNeighbor)) 
             {
-                continue;
+                if (rating.getIntRating() >= 4 && !ratedBookIdSet.contains(rating.getStrBookId()))  // Liked and unseen
+                {
+                    mapScoreByBook.merge(rating.getStrBookId(), dblSimilarity * rating.getIntRating(), Double::sum);
+                }
             }
+        }
+
+        List<String> strBookIdList = new ArrayList<String>(mapScoreByBook.keySet());
+        TopKSelector selector    = new TopKSelector();
+        double[]     dblScoreArr = selector.prepare(strBookIdList.size(), intCount);
+
+        for (int intI = 0; intI < strBookIdList.size(); intI++) 
+        {
+            dblScoreArr[intI] = mapScoreByBook.get(strBookIdList.get(intI));
+            selector.offer(intI);
+        }
+
+        List<Book> listResult = new ArrayList<Book>();  // Recommended books
+
+        for (int intIndex : selector.drainDescending()) 
+        {
+            Book book = bookDatabase.findBookById(strBookIdList.get(intIndex));
+
+            if (book != null)  // Ignore books no longer in the catalog
+            {
+                listResult.add(book);
+            }
+        }
+
+        return listResult;
+    }
+
+
+    /**
+     * Replaces the latent-factor model used in MATRIX_FACTORIZATION mode
+     * @param factorizationModel - a model produced by AlsTrainer
+     */
+    public void setFactorizationModel(MatrixFactorizationModel factorizationModel) 
+    {
+        this.factorizationModel = factorizationModel;
+        recommendationCache.invalidateAll();
+    }
+
+
+    /**
+     * Rebuilds the item-item similarity index from all current ratings
+     * Ratings added afterwards are picked up by the next rebuild
+     * @return - the new index
+     */
+    public synchronized ItemSimilarityIndex rebuildItemSimilarityIndex() 
+    {
+        long longStart = System.nanoTime();  // Build timer
+
+        itemSimilarityIndex = ItemSimilarityIndex.build(
+            snapshotRatings(true), bookIdDictionary, intSimilarNeighborLimit, false);  // Read in place, off-heap
+        recommendationCache.invalidateAll();
+
+        System.out.println(String.format(
+            "Item similarity index built: %d books in %d ms",
+            itemSimilarityIndex.getIntBookCount(), (System.nanoTime() - longStart) / 1000000
+        ));
+
+        return itemSimilarityIndex;
+    }
+
+
+    /**
+     * Copies all current ratings into an off-heap store for bulk scans (index builds, offline jobs)
+     * Ordinals in the store come from this engine's user and book ID dictionaries
+     * Call while no ratings are being added
+     * @param isBookSorted - true to also build the book-sorted copy
+     * @return - the snapshot
+     */
+    public OffHeapRatingStore snapshotRatings(boolean isBookSorted) 
+    {
+        return OffHeapRatingStore.from(ratingTable, userIdDictionary.size(), bookIdDictionary.size(), isBookSorted);
+    }
+
 
-            double dblScore = calculateMatchScore(book, strPrefGenre, strPrefAuthor);
-            mapScoreByBook.put(book, dblScore);
+    /**
+     * Sets how much one borrow counts relative to one liked (4–5) rating
+     * Preferred genre/author use the weight in effect when each borrow happened
+     * @param dblImplicitWeight - the weight; 0 ignores borrows
+     * @throws IllegalArgumentException if the weight is negative
+     */
+    public void setDblImplicitWeight(double dblImplicitWeight) 
+    {
+        if (dblImplicitWeight < 0.0)  // Validate weight
+        {
+            throw new IllegalArgumentException("Implicit weight cannot be negative");
         }
 
-        return sortBooksByScore(mapScoreByBook, intCount);
+        this.dblImplicitWeight = dblImplicitWeight;
+        recommendationCache.invalidateAll();
+        precomputedRecommendations = null;
+    }
+
+
+    /**
+     * Gets how much one borrow counts relative to one liked rating
+     * @return - the implicit feedback weight
+     */
+    public double getDblImplicitWeight() 
+    {
+        return dblImplicitWeight;
+    }
+
+
+    /**
+     * Sets how strongly recommendation lists are diversified across genres and authors
+     * @param dblDiversityWeight - between 0 (pure score order) and 1 (most diverse); 0.5 by default
+     * @throws IllegalArgumentException if the weight is outside 0–1
+     */
+    public void setDblDiversityWeight(double dblDiversityWeight) 
+    {
+        diversityReranker.setDblDiversityWeight(dblDiversityWeight);
+        recommendationCache.invalidateAll();  // Cached lists used the old ordering
+        precomputedRecommendations = null;
+    }
+
+
+    /**
+     * Gets the diversity weight
+     * The default of 0.5 means lists no longer follow pure score order as they
+     * did before the reranker existed; set 0 to restore that ordering
+     * @return - the weight (0 when diversification is off)
+     */
+    public double getDblDiversityWeight() 
+    {
+        return diversityReranker.getDblDiversityWeight();
+    }
+
+
+    /**
+     * Selects the scoring strategy used by generateRecommendations
+     * @param recommendationMode - the strategy to use
+     */
+    public void setRecommendationMode(RecommendationMode recommendationMode) 
+    {
+        this.recommendationMode = recommendationMode;
+        recommendationCache.invalidateAll();
+        precomputedRecommendations = null;
+    }
+
+
+    /**
+     * Gets the active scoring strategy
+     * @return - the current RecommendationMode
+     */
+    public RecommendationMode getRecommendationMode() 
+    {
+        return recommendationMode;
     }
 
 
@@ -112,15 +819,135 @@ public class RecommendationEngine
      */
     public void addRating(String strUserId, String strBookId, int intRating) 
     {
-        ratingList.removeIf(rating -> 
-            rating.getStrUserId().equals(strUserId) 
-            && rating.getStrBookId().equals(strBookId)
-        );  // Remove any existing rating for this user/book
+        Rating rating = new Rating(strUserId, strBookId, intRating);
+
+        rewardServed(strUserId, strBookId, (intRating - 1) / 4.0);  // 1 star → 0, 5 stars → 1
+        applyRating(rating);      // O(1) upsert into the in-memory state
+        userSimilarityIndex.updateUser(strUserId, getUserRatings(strUserId));  // Re-sign only this reader
+        recommendationCache.invalidate(strUserId);
+        dropPrecomputed(strUserId);
+        ratingLog.append(rating); // Persist as a single log line
+
+        if (ratingLog.needsCompaction())  // Fold the log into a new snapshot in the background
+        {
+            ratingLog.compactAsync(getAllRatings());
+        }
+
+        updateBookRating(strBookId);  // Adjust book's average rating
+    }
 
-        ratingList.add(new Rating(strUserId, strBookId, intRating));  // Add new rating
-        FileUtils.saveRatingsToCSV(new ArrayList<Rating>(ratingList));  // Persist to CSV
 
-        updateBookRating(strBookId);  // Recalculate book's average rating
+    /**
+     * Records that a user opened a book from their recommendations
+     * @param strUserId - the user's unique identifier
+     * @param strBookId - the book's unique identifier
+     */
+    public void recordClick(String strUserId, String strBookId) 
+    {
+        rewardServed(strUserId, strBookId, dblClickReward);
+    }
+
+
+    /**
+     * Credits the arm behind a user's last computed list if it contained the book
+     * @param strUserId - the user's unique identifier
+     * @param strBookId - the book's unique identifier
+     * @param dblReward - reward between 0.0 and 1.0
+     */
+    private void rewardServed(String strUserId, String strBookId, double dblReward) 
+    {
+        ServedList served = mapServedByUser.get(strUserId);
+
+        if (served != null && served.bookIdSet.contains(strBookId))  // Feedback on a recommended book
+        {
+            weightBandit.recordReward(served.intArm, dblReward);
+        }
+    }
+
+
+    /**
+     * Gets the weight bandit, e.g. to report per-arm reward and selection overhead
+     * @return - the WeightBandit used by generateRecommendations
+     */
+    public WeightBandit getWeightBandit() 
+    {
+        return weightBandit;
+    }
+
+
+    /**
+     * Turns online weight tuning on or off; when off every list uses the manual weights
+     * @param isWeightTuningEnabled - true to let the bandit choose weights
+     */
+    public void setWeightTuningEnabled(boolean isWeightTuningEnabled) 
+    {
+        this.isWeightTuningEnabled = isWeightTuningEnabled;
+    }
+
+
+    /**
+     * Gets the manually adjusted weights
+     * @return - {genre, author, rating, popularity}
+     */
+    private double[] manualWeights() 
+    {
+        return new double[] { dblGenreWeight, dblAuthorWeight, dblRatingWeight, dblPopularityWeight };
+    }
+
+
+    /**
+     * Gets the recommendation cache, e.g. to report its size, hit ratio and evictions
+     * @return - the RecommendationCache used by generateRecommendations
+     */
+    public RecommendationCache getRecommendationCache() 
+    {
+        return recommendationCache;
+    }
+
+
+    /**
+     * Drops a user's precomputed list once it no longer reflects their ratings
+     * @param strUserId - the user's unique identifier
+     */
+    private void dropPrecomputed(String strUserId) 
+    {
+        PrecomputedRecommendations store = precomputedRecommendations;
+
+        if (store != null) 
+        {
+            store.remove(strUserId);
+        }
+    }
+
+
+    /**
+     * Gets the candidate pipeline, e.g. to tune pool size and stage quotas or read stage latency
+     * @return - the RecommendationPipeline used for content-based scoring
+     */
+    public RecommendationPipeline getRecommendationPipeline() 
+    {
+        return recommendationPipeline;
+    }
+
+
+    /**
+     * Measures overall catalog activity used to detect cache drift
+     * @return - total borrows plus total ratings
+     */
+    private long catalogActivity() 
+    {
+        CatalogStatistics stats = bookDatabase.getCatalogStatistics();
+        return stats.getLongTotalBorrowCount() + stats.getLongRatingCount();
+    }
+
+
+    /**
+     * Writes any pending book average changes to storage
+     * Call before shutdown or logout; changes are otherwise written in batches
+     */
+    public void flush() 
+    {
+        bookDatabase.flushBooks();
     }
 
 
@@ -137,6 +964,9 @@ public class RecommendationEngine
         double dblTotal = dblGenreWeight + dblAuthorWeight + dblRatingWeight + dblPopularityWeight;
         dblRatingWeight     = (dblRatingWeight / dblTotal)     * (1 - dblGenreWeight - dblAuthorWeight);
         dblPopularityWeight = 1 - dblGenreWeight - dblAuthorWeight - dblRatingWeight;
+        recommendationCache.invalidateAll();  // Every cached score used the old weights
+        precomputedRecommendations = null;
+        weightBandit.setArmWeights(0, manualWeights());
 
         System.out.println(String.format(
             "Weights adjusted → Genre: %.2f, Author: %.2f, Rating: %.2f, Popularity: %.2f",
@@ -150,176 +980,155 @@ public class RecommendationEngine
      * @param book the Book to score
      * @param strPrefGenre - the user's preferred genre
      * @param strPrefAuthor - the user's preferred author
+     * @param dblWeightArr - scoring weights {genre, author, rating, popularity}
      * @return - combined match score (higher is better)
      */
-    private double calculateMatchScore(Book book, String strPrefGenre, String strPrefAuthor) 
+    private double calculateMatchScore(Book book, String strPrefGenre, String strPrefAuthor, double[] dblWeightArr) 
     {
         double dblScore = 0.0;  // Accumulator
 
         if (book.getStrGenre().equals(strPrefGenre))    // Genre match
         {
-            dblScore += dblGenreWeight;
+            dblScore += dblWeightArr[0];
         }
 
         if (book.getStrAuthor().equals(strPrefAuthor))  // Author match
         {
-            dblScore += dblAuthorWeight;
+            dblScore += dblWeightArr[1];
         }
 
-        dblScore += (book.getDblAvgRating() / 5.0) * dblRatingWeight;  // Normalized rating
+        dblScore += (book.getDblAvgRating() / 5.0) * dblWeightArr[2];  // Normalized rating
 
-        int intMaxBorrow = bookDatabase.getAllBooks()
-                                       .stream()
-                                       .mapToInt(Book::getIntBorrowCount)
-                                       .max()
-                                       .orElse(1);  // Avoid division by zero
+        int intMaxBorrow = Math.max(1, bookDatabase.getCatalogStatistics().getIntMaxBorrowCount());  // Avoid division by zero
 
-        dblScore += ((double) book.getIntBorrowCount() / intMaxBorrow) * dblPopularityWeight;  // Popularity
+        dblScore += ((double) book.getIntBorrowCount() / intMaxBorrow) * dblWeightArr[3];  // Popularity
 
         return dblScore;
     }
 
 
     /**
-     * Determines the user's most frequently high-rated genre
-     * @param listRatings the user's past ratings
-     * @return genre string with highest count; "Unknown" if none
+     * Scores the whole catalog for a request in columnar passes (see CatalogColumns)
+     * @param request - the request being served
+     * @param fltScoreArr - receives one score per catalog column
      */
-    private String calculatePreferredGenre(List<Rating> listRatings) 
+    private void scoreCatalog(CandidateRequest request, float[] fltScoreArr) 
     {
-        Map<String, Integer> mapCount = new HashMap<String, Integer>();  // Genre → count
+        CatalogColumns columns = bookDatabase.getCatalogColumns();
 
-        for (Rating rating : listRatings) 
-        {
-            if (rating.getIntRating() < 4)  // Only consider positive ratings
-            {
-                continue;
-            }
-
-            Book book = bookDatabase.findBookById(rating.getStrBookId());
-
-            if (book != null) 
-            {
-                mapCount.merge(book.getStrGenre(), 1, Integer::sum);  // Increment
-            }
-        }
-
-        return maxKey(mapCount);
+        columns.score(columns.getGenreCode(request.strPrefGenre), columns.getAuthorCode(request.strPrefAuthor),
+                      (float) request.dblWeightArr[0], (float) request.dblWeightArr[1],
+                      (float) request.dblWeightArr[2], (float) request.dblWeightArr[3],
+                      Math.max(1, bookDatabase.getCatalogStatistics().getIntMaxBorrowCount()), fltScoreArr);
     }
 
 
     /**
-     * Determines the user's most frequently high-rated author
-     * @param listRatings - the user's past ratings
-     * @return - author string with highest count; "Unknown" if none
+     * Looks up the ratings submitted by a specific user
+     * @param strUserId - the user's unique identifier
+     * @return - list of this user's ratings, materialized from packed rows; empty if none
      */
-    private String calculatePreferredAuthor(List<Rating> listRatings) 
+    private List<Rating> getUserRatings(String strUserId) 
     {
-        Map<String, Integer> mapCount = new HashMap<String, Integer>();  // Author → count
+        int intUser  = userIdDictionary.lookup(strUserId);
+        int intCount = (intUser < 0) ? 0 : ratingTable.getUserRowCount(intUser);
 
-        for (Rating rating : listRatings) 
+        if (intCount == 0)  // Unknown user or no ratings
         {
-            if (rating.getIntRating() < 4)  // Only consider positive ratings
-            {
-                continue;
-            }
+            return Collections.<Rating>emptyList();
+        }
 
-            Book book = bookDatabase.findBookById(rating.getStrBookId());
+        List<Rating> listResult = new ArrayList<Rating>(intCount);  // User's ratings
 
-            if (book != null) 
-            {
-                mapCount.merge(book.getStrAuthor(), 1, Integer::sum);  // Increment
-            }
+        for (int intI = 0; intI < intCount; intI++) 
+        {
+            int intRow = ratingTable.getUserRow(intUser, intI);
+            listResult.add(new Rating(strUserId, bookIdDictionary.getStrId(ratingTable.getBook(intRow)),
+                                      ratingTable.getScore(intRow), ratingTable.getTimestamp(intRow)));
         }
 
-        return maxKey(mapCount);
+        return listResult;
     }
 
 
     /**
-     * Filters the complete rating list for a specific user
+     * Looks up the IDs of all books a user has already rated
      * @param strUserId - the user's unique identifier
-     * @return - list of this user's ratings
+     * @return - set of rated book IDs; empty if none
      */
-    private List<Rating> getUserRatings(String strUserId) 
+    private Set<String> getRatedBookIds(String strUserId) 
     {
-        List<Rating> listResult = new ArrayList<Rating>();  // User's ratings
+        int intUser  = userIdDictionary.lookup(strUserId);
+        int intCount = (intUser < 0) ? 0 : ratingTable.getUserRowCount(intUser);
 
-        for (Rating rating : ratingList) 
+        if (intCount == 0)  // Unknown user or no ratings
         {
-            if (rating.getStrUserId().equals(strUserId)) 
-            {
-                listResult.add(rating);
-            }
+            return Collections.<String>emptySet();
         }
 
-        return listResult;
+        Set<String> setResult = new HashSet<String>(intCount * 2);  // Rated book IDs
+
+        for (int intI = 0; intI < intCount; intI++) 
+        {
+            setResult.add(bookIdDictionary.getStrId(ratingTable.getBook(ratingTable.getUserRow(intUser, intI))));
+        }
+
+        return setResult;
     }
 
 
     /**
-     * Checks whether the user already rated a given book
-     * @param - listRatings the user's ratings
-     * @param - strBookId the book's unique identifier
-     * @return - true if found; false otherwise
+     * Copies every current rating out of the packed table, in first-rated order
+     * Used for snapshot compaction and index builds, which need a stable copy
+     * @return - list of all ratings
      */
-    private boolean hasRatedBook(List<Rating> listRatings, String strBookId) 
+    private List<Rating> getAllRatings() 
     {
-        for (Rating rating : listRatings) 
+        List<Rating> listResult = new ArrayList<Rating>(ratingTable.size());  // All ratings
+
+        for (int intRow = 0; intRow < ratingTable.size(); intRow++) 
         {
-            if (rating.getStrBookId().equals(strBookId))  // Match found
-            {
-                return true;
-            }
+            listResult.add(new Rating(userIdDictionary.getStrId(ratingTable.getUser(intRow)),
+                                      bookIdDictionary.getStrId(ratingTable.getBook(intRow)),
+                                      ratingTable.getScore(intRow), ratingTable.getTimestamp(intRow)));
         }
 
-        return false;
+        return listResult;
     }
 
 
     /**
-     * Sorts books by score descending and returns top N
-     * @param mapScoreByBook - map of Book to score
-     * @param intCount - max number of books to return
-     * @return - list of top-scoring books
+     * Upserts a rating into the packed table, the rating statistics and the decayed preferences
+     * @param rating - the new rating; replaces any earlier rating of the same book by the same user
+     * @return - the replaced rating value, or 0 if this is a new rating
      */
-    private List<Book> sortBooksByScore(Map<Book, Double> mapScoreByBook, int intCount) 
+    private int applyRating(Rating rating) 
     {
-        List<Map.Entry<Book, Double>> listEntries = 
-            new ArrayList<Map.Entry<Book, Double>>(mapScoreByBook.entrySet());
+        int  intUser     = userIdDictionary.getOrAdd(rating.getStrUserId());
+        int  intBook     = bookIdDictionary.getOrAdd(rating.getStrBookId());
+        int  intOldRow   = ratingTable.findRow(intUser, intBook);
+        long longOldTime = (intOldRow < 0) ? 0L : ratingTable.getTimestamp(intOldRow);  // Needed to undo its weight
 
-        Collections.sort(listEntries, new Comparator<Map.Entry<Book, Double>>() 
+        int intOldRating = ratingTable.upsert(intUser, intBook, rating.getIntRating(), rating.getLongTimestamp());
+
+        bookDatabase.recordRatingChange(intOldRating, rating.getIntRating());
+
+        Book book = bookDatabase.findBookById(rating.getStrBookId());
+
+        if (book != null)  // Only liked (4–5) ratings shape preferences
         {
-            @Override
-            public int compare(Map.Entry<Book, Double> e1, Map.Entry<Book, Double> e2) 
+            if (intOldRating >= 4) 
             {
-                return Double.compare(e2.getValue(), e1.getValue());  // Descending
+                decayedPreferences.remove(rating.getStrUserId(), book, 1.0, longOldTime);
             }
-        });
 
-        List<Book> listTop = new ArrayList<Book>();  // Top results
-
-        for (int intI = 0; intI < Math.min(intCount, listEntries.size()); intI++) 
-        {
-            listTop.add(listEntries.get(intI).getKey());
+            if (rating.getIntRating() >= 4) 
+            {
+                decayedPreferences.add(rating.getStrUserId(), book, 1.0, rating.getLongTimestamp());
+            }
         }
 
-        return listTop;
-    }
-
-
-    /**
-     * Retrieves the key with the highest integer value in the map
-     * @param mapCount - the map of keys to counts
-     * @return - key string with max count; "Unknown" if map empty
-     */
-    private String maxKey(Map<String, Integer> mapCount) 
-    {
-        return mapCount.entrySet()
-                       .stream()
-                       .max(Map.Entry.comparingByValue())
-                       .map(Map.Entry::getKey)
-                       .orElse("Unknown");
+        return intOldRating;
     }
 
 
@@ -346,32 +1155,48 @@ public class RecommendationEngine
 
 
     /**
-     * Updates a book's average rating based on all stored ratings
+     * Sets a book's average rating from its running totals in O(1)
+     * The change is persisted with the next batched flush of book data
      * @param strBookId - the book's unique identifier
      */
     private void updateBookRating(String strBookId) 
     {
-        int intTotal = 0;  // Sum of ratings
-        int intCount = 0;  // Number of ratings
+        int intBook = bookIdDictionary.lookup(strBookId);
 
-        for (Rating rating : ratingList) 
+        if (intBook < 0)  // Book has no ratings
         {
-            if (rating.getStrBookId().equals(strBookId)) 
-            {
-                intTotal += rating.getIntRating();  // Accumulate
-                intCount++;
-            }
+            return;
         }
 
-        if (intCount > 0)  // Avoid division by zero
+        Book book     = bookDatabase.findBookById(strBookId);
+        int  intCount = ratingTable.getScoreCount(intBook);
+
+        if (book != null && intCount > 0)  // Avoid division by zero
         {
-            Book book = bookDatabase.findBookById(strBookId);
+            double dblAvg = (double) ratingTable.getScoreSum(intBook) / intCount;  // Compute average
+            book.setDblAvgRating(Math.round(dblAvg * 10) / 10.0);      // Round one decimal
+            bookDatabase.recordAverageRatingChange(book);               // Persist in the next batch
+        }
+    }
+
+
+    /**
+     * Inner class remembering which arm produced a user's last computed list
+     */
+    private static class ServedList 
+    {
+        final int         intArm;     // Bandit arm used
+        final Set<String> bookIdSet;  // IDs of the books in the list
+
+
+        ServedList(int intArm, List<Book> bookList) 
+        {
+            this.intArm    = intArm;
+            this.bookIdSet = new HashSet<String>();
 
-            if (book != null) 
+            for (Book book : bookList) 
             {
-                double dblAvg = (double) intTotal / intCount;  // Compute average
-                book.setDblAvgRating(Math.round(dblAvg * 10) / 10.0);  // Round one decimal
-                bookDatabase.saveBooks();  // Persist updated book data
+                bookIdSet.add(book.getStrId());
             }
         }
     }
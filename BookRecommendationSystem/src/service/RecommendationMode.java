@@ -0,0 +1,16 @@
+/**
+ * File: RecommendationMode.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Enumerates the scoring strategies RecommendationEngine can use
+**/
+package service;
+
+public enum RecommendationMode
+{
+    CONTENT_BASED,          // Preferred genre/author, average rating and popularity
+    ITEM_COLLABORATIVE,     // Item-item similarity computed from co-ratings
+    MATRIX_FACTORIZATION    // Latent factors trained offline by AlsTrainer
+}
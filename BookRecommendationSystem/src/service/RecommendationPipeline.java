@@ -0,0 +1,347 @@
+/**
+ * File: RecommendationPipeline.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Two-stage recommendation: cheap candidate generators fill a bounded pool,
+ *    then only the pool is scored by a ranking function
+ *  - Each generator stage has its own quota; the pool size is configurable
+ *  - Index-derived stages run first; whole-catalog scans run only when those
+ *    stages found too few candidates, so a typical request never scores or
+ *    scans every book
+ *  - Records per-stage latency (generators and ranking) with lock-free counters
+ *  - Deadline-bound requests stop before a stage whose average latency exceeds the time left
+ *    (once the pool holds something), and stop ranking when time runs out,
+ *    keeping the best found so far
+ *  - Optionally reorders the scored pool for diversity (DiversityReranker)
+**/
+package service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+import model.Book;
+
+public class RecommendationPipeline
+{
+    private volatile int intCandidatePoolSize;  // Maximum candidates scored per request
+
+    private final List<Stage> stageList = new ArrayList<Stage>();  // Generators in priority order
+    private final StageTimer  rankTimer = new StageTimer("rank");  // Ranking stage latency
+
+    private volatile DiversityReranker diversityReranker;  // Post-ranking reorder; null for none
+
+    private static final int intRankDeadlineMask = 63;  // Check the clock every 64 scored candidates
+    private static final int intShortfallFactor  = 4;   // Scan the catalog when the pool holds fewer than 4 candidates per requested book
+
+    private final ThreadLocal<TopKSelector> topKSelectorLocal =
+        ThreadLocal.withInitial(TopKSelector::new);  // Reused top-K buffers per thread
+
+
+    /**
+     * Constructs a pipeline with no generators
+     * @param intCandidatePoolSize - maximum candidates scored per request
+     * @throws IllegalArgumentException if the pool size is less than 1
+     */
+    public RecommendationPipeline(int intCandidatePoolSize)
+    {
+        setIntCandidatePoolSize(intCandidatePoolSize);
+    }
+
+
+    /**
+     * Appends a candidate generation stage
+     * @param generator - the generator to run
+     * @param intQuota - maximum candidates this stage may contribute
+     */
+    synchronized void addStage(CandidateGenerator generator, int intQuota)
+    {
+        addStage(generator, intQuota, false);
+    }
+
+
+    /**
+     * Appends a candidate generation stage
+     * @param generator - the generator to run
+     * @param intQuota - maximum candidates this stage may contribute
+     * @param isFullScan - true if the generator scans the whole catalog; it runs last, and only when
+     *                     the other stages came up short
+     */
+    synchronized void addStage(CandidateGenerator generator, int intQuota, boolean isFullScan)
+    {
+        stageList.add(new Stage(generator, intQuota, isFullScan));
+    }
+
+
+    /**
+     * Sets the post-processing stage that reorders ranked candidates for diversity
+     * @param diversityReranker - the reranker, or null to keep pure score order
+     */
+    void setDiversityReranker(DiversityReranker diversityReranker)
+    {
+        this.diversityReranker = diversityReranker;
+    }
+
+
+    /**
+     * Sets the maximum number of candidates scored per request
+     * @param intCandidatePoolSize - the new pool size
+     * @throws IllegalArgumentException if the pool size is less than 1
+     */
+    public void setIntCandidatePoolSize(int intCandidatePoolSize)
+    {
+        if (intCandidatePoolSize < 1)  // Validate pool size
+        {
+            throw new IllegalArgumentException("Candidate pool size must be at least 1");
+        }
+
+        this.intCandidatePoolSize = intCandidatePoolSize;
+    }
+
+
+    /**
+     * Gets the maximum number of candidates scored per request
+     * @return - the pool size
+     */
+    public int getIntCandidatePoolSize()
+    {
+        return intCandidatePoolSize;
+    }
+
+
+    /**
+     * Sets how many candidates a named stage may contribute
+     * @param strStageName - the stage name (e.g. "preference", "popular")
+     * @param intQuota - the new quota
+     * @return - true if a stage with that name exists
+     */
+    public synchronized boolean setStageQuota(String strStageName, int intQuota)
+    {
+        for (Stage stage : stageList)
+        {
+            if (stage.generator.getStrName().equals(strStageName))
+            {
+                stage.intQuota = Math.max(0, intQuota);
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+
+    /**
+     * Generates candidates and returns the top-scoring ones
+     * @param request - the request being served
+     * @param intCount - maximum number of books to return
+     * @param ranker - scoring function applied to every candidate
+     * @return - best candidates by descending score, ties in pool order (or in diversified
+     *           pick order when the reranker is enabled); incomplete if
+     *           the request's deadline skipped a stage or stopped ranking early
+     */
+    RecommendationResult run(CandidateRequest request, int intCount, ToDoubleFunction<Book> ranker)
+    {
+        CandidatePool pool       = generateCandidates(request, intCount);
+        boolean       isComplete = !pool.isCutShort();
+
+        long longStart = System.nanoTime();  // Ranking timer
+        List<Book>        candidateList = pool.getBooks();
+        TopKSelector      selector      = topKSelectorLocal.get();
+        double[]          dblScoreArr   = selector.prepare(candidateList.size(), intCount);
+        int               intScored     = 0;
+        DiversityReranker reranker      = diversityReranker;
+        boolean           isDiversified = reranker != null && reranker.isEnabled();  // Rerank needs every score
+
+        for (; intScored < candidateList.size(); intScored++)
+        {
+            if ((intScored & intRankDeadlineMask) == intRankDeadlineMask && request.isPastDeadline())  // Keep the best so far
+            {
+                isComplete = false;
+                break;
+            }
+
+            dblScoreArr[intScored] = ranker.applyAsDouble(candidateList.get(intScored));
+
+            if (!isDiversified)
+            {
+                selector.offer(intScored);
+            }
+        }
+
+        List<Book> listTop = new ArrayList<Book>(intCount);  // Top results
+
+        if (isDiversified)
+        {
+            listTop.addAll(reranker.rerank(candidateList, dblScoreArr, intScored, intCount));
+        }
+        else
+        {
+            for (int intIndex : selector.drainDescending())
+            {
+                listTop.add(candidateList.get(intIndex));
+            }
+        }
+
+        rankTimer.record(System.nanoTime() - longStart, intScored);
+        return new RecommendationResult(listTop, isComplete);
+    }
+
+
+    /**
+     * Runs the generator stages in order until the pool is full or the deadline passes
+     * Whole-catalog scans run last and are skipped once the pool holds enough candidates
+     * @param request - the request being served
+     * @param intCount - number of books the request will return
+     * @return - the filled candidate pool; marked cut short if the deadline skipped or stopped a stage
+     */
+    CandidatePool generateCandidates(CandidateRequest request, int intCount)
+    {
+        CandidatePool pool          = new CandidatePool(intCandidatePoolSize, request);
+        long          longEnoughFor = (long) Math.max(1, intCount) * intShortfallFactor;  // Pool size that makes a scan unnecessary
+
+        for (Stage stage : snapshotStages())
+        {
+            if (pool.size() >= intCandidatePoolSize || pool.isCutShort())  // Pool already full or closed
+            {
+                break;
+            }
+
+            if (stage.isFullScan && pool.size() >= longEnoughFor)  // Targeted stages found enough
+            {
+                continue;
+            }
+
+            if (pool.size() > 0 && stage.timer.getLongAvgNanos() >= request.getLongRemainingNanos())  // Likely to overrun
+            {
+                pool.markCutShort();
+                break;
+            }
+
+            long longStart  = System.nanoTime();  // Stage timer
+            int  intBefore  = pool.size();
+
+            pool.beginStage(stage.intQuota);
+            stage.generator.generate(request, pool);
+            stage.timer.record(System.nanoTime() - longStart, pool.size() - intBefore);
+        }
+
+        return pool;
+    }
+
+
+    /**
+     * Gets a copy of the stage list, whole-catalog scans last, so requests don't hold the lock while running
+     */
+    private synchronized List<Stage> snapshotStages()
+    {
+        List<Stage> stageListCopy = new ArrayList<Stage>(stageList.size());
+
+        for (Stage stage : stageList)  // Index-derived stages first
+        {
+            if (!stage.isFullScan)
+            {
+                stageListCopy.add(stage);
+            }
+        }
+
+        for (Stage stage : stageList)  // Then the scans, used only to make up a shortfall
+        {
+            if (stage.isFullScan)
+            {
+                stageListCopy.add(stage);
+            }
+        }
+
+        return stageListCopy;
+    }
+
+
+    /**
+     * Builds a per-stage latency report
+     * @return - formatted report with calls, average latency and average candidates per stage
+     */
+    public synchronized String getStageLatencyReport()
+    {
+        StringBuilder sbReport = new StringBuilder();  // Report builder
+
+        sbReport.append(String.format("Candidate pool size: %d\n", intCandidatePoolSize));
+        sbReport.append(String.format("%-15s %-8s %-10s %-12s %-12s\n",
+            "Stage", "Quota", "Calls", "AvgMicros", "AvgItems"));
+
+        for (Stage stage : stageList)
+        {
+            sbReport.append(stage.timer.format(String.valueOf(stage.intQuota)));
+        }
+
+        sbReport.append(rankTimer.format("-"));
+        return sbReport.toString();
+    }
+
+
+    /**
+     * Inner class pairing a generator with its quota and timer
+     */
+    private static class Stage
+    {
+        final CandidateGenerator generator;   // The generator
+        final StageTimer         timer;       // Its latency counters
+        final boolean            isFullScan;  // Scans the whole catalog
+        volatile int             intQuota;    // Maximum candidates it may add
+
+
+        Stage(CandidateGenerator generator, int intQuota, boolean isFullScan)
+        {
+            this.generator  = generator;
+            this.timer      = new StageTimer(generator.getStrName());
+            this.isFullScan = isFullScan;
+            this.intQuota   = Math.max(0, intQuota);
+        }
+    }
+
+
+    /**
+     * Inner class accumulating lock-free latency and volume counters for one stage
+     */
+    private static class StageTimer
+    {
+        final String    strName;                       // Stage name
+        final LongAdder longCalls = new LongAdder();   // Number of runs
+        final LongAdder longNanos = new LongAdder();   // Total time
+        final LongAdder longItems = new LongAdder();   // Total candidates produced or scored
+
+
+        StageTimer(String strName)
+        {
+            this.strName = strName;
+        }
+
+
+        void record(long longElapsedNanos, int intItems)
+        {
+            longCalls.increment();
+            longNanos.add(longElapsedNanos);
+            longItems.add(intItems);
+        }
+
+
+        long getLongAvgNanos()
+        {
+            long longCallCount = longCalls.sum();
+            return (longCallCount == 0) ? 0 : longNanos.sum() / longCallCount;
+        }
+
+
+        String format(String strQuota)
+        {
+            long longCallCount = Math.max(1L, longCalls.sum());
+
+            return String.format("%-15s %-8s %-10d %-12.1f %-12.1f\n",
+                strName, strQuota, longCalls.sum(),
+                longNanos.sum() / 1000.0 / longCallCount,
+                (double) longItems.sum() / longCallCount);
+        }
+    }
+}
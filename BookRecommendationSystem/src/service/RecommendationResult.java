@@ -0,0 +1,65 @@
+/**
+ * File: RecommendationResult.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Recommendations returned by a deadline-bound request
+ *  - Records whether every candidate stage and the full ranking ran before
+ *    the deadline, or the list is the best found when time ran out
+**/
+package service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import model.Book;
+
+public class RecommendationResult
+{
+    private ArrayList<Book> bookList;    // Recommended books, best first
+    private boolean         isComplete;  // False if the deadline cut generation or ranking short
+
+
+    /**
+     * Constructs a result
+     * @param bookList - recommended books, best first
+     * @param isComplete - true if no work was skipped because of the deadline
+     */
+    public RecommendationResult(List<Book> bookList, boolean isComplete)
+    {
+        this.bookList   = new ArrayList<Book>(bookList);
+        this.isComplete = isComplete;
+    }
+
+
+    /**
+     * Gets the recommended books
+     * @return - list of books, best first
+     */
+    public ArrayList<Book> getBookList()
+    {
+        return bookList;
+    }
+
+
+    /**
+     * Checks whether the result is what an unbounded request would have returned
+     * @return - true if no candidate stage or ranking work was skipped
+     */
+    public boolean isComplete()
+    {
+        return isComplete;
+    }
+
+
+    /**
+     * Returns a string summary of the result
+     * @return - formatted summary
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("RecommendationResult[books=%d, complete=%b]", bookList.size(), isComplete);
+    }
+}
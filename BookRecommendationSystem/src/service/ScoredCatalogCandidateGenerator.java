@@ -0,0 +1,78 @@
+/**
+ * File: ScoredCatalogCandidateGenerator.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Candidates from the best content scores across the whole catalog
+ *  - Scores every book in columnar passes (CatalogColumns) and shortlists the top ones
+**/
+package service;
+
+import java.util.function.BiConsumer;
+
+class ScoredCatalogCandidateGenerator implements CandidateGenerator
+{
+    private BookDatabase bookDatabase;                            // Owns the catalog columns
+    private BiConsumer<CandidateRequest, float[]> catalogScorer;  // Fills one score per column
+
+    private final ThreadLocal<TopKSelector> topKSelectorLocal =
+        ThreadLocal.withInitial(TopKSelector::new);  // Reused top-K buffers per thread
+    private final ThreadLocal<float[]> scoreBufferLocal =
+        ThreadLocal.withInitial(() -> new float[0]);  // Reused score buffer per thread
+
+
+    /**
+     * Constructs the generator
+     * @param bookDatabase - the BookDatabase holding the catalog columns
+     * @param catalogScorer - writes the request's score for every catalog column
+     */
+    ScoredCatalogCandidateGenerator(BookDatabase bookDatabase, BiConsumer<CandidateRequest, float[]> catalogScorer)
+    {
+        this.bookDatabase  = bookDatabase;
+        this.catalogScorer = catalogScorer;
+    }
+
+
+    @Override
+    public String getStrName()
+    {
+        return "scored-catalog";
+    }
+
+
+    @Override
+    public void generate(CandidateRequest request, CandidatePool pool)
+    {
+        CatalogColumns columns     = bookDatabase.getCatalogColumns();
+        int            intSize     = columns.size();
+        float[]        fltScoreArr = scoreBufferLocal.get();
+
+        if (fltScoreArr.length < intSize)  // Grow score buffer
+        {
+            fltScoreArr = new float[intSize];
+            scoreBufferLocal.set(fltScoreArr);
+        }
+
+        catalogScorer.accept(request, fltScoreArr);
+
+        int intLimit = pool.remaining() + pool.size() + request.ratedBookIdSet.size();  // Room for skipped books
+
+        TopKSelector selector    = topKSelectorLocal.get();
+        double[]     dblScoreArr = selector.prepare(intSize, intLimit);
+
+        for (int intI = 0; intI < intSize; intI++)
+        {
+            dblScoreArr[intI] = fltScoreArr[intI];
+            selector.offer(intI);
+        }
+
+        for (int intIndex : selector.drainDescending())
+        {
+            if (!pool.offer(columns.getBook(intIndex)))  // Stage or pool full
+            {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/**
+ * File: SessionManager.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Issues opaque session tokens for authenticated users so later requests
+ *    can be served without re-checking the password
+ *  - Tokens are 256 random bits (SecureRandom), URL-safe Base64 encoded
+ *  - Sessions live in a ConcurrentHashMap; validating a token is one lock-free
+ *    map read plus a volatile write that extends the idle timeout
+ *  - Expiry is driven by a hashed timing wheel: each session sits in the slot
+ *    of its expiry tick, and a background ticker only visits the slot that is
+ *    due, so there are no periodic scans of every session
+ *  - A session touched since it was slotted is moved to its new slot when its
+ *    old slot comes round, instead of on every validation
+**/
+package service;
+
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import model.User;
+
+public class SessionManager
+{
+    private static final long longDefaultIdleMillis = 30L * 60 * 1000;  // Sessions end after 30 idle minutes
+    private static final long longDefaultTickMillis = 1000;              // Wheel resolution
+    private static final int  intWheelSlots         = 512;               // Slots in the timing wheel
+    private static final int  intTokenBytes         = 32;                // Random bytes per token
+
+    private final long longIdleMillis;  // Idle time after which a session expires
+    private final long longTickMillis;  // Length of one wheel tick
+
+    private final Map<String, Session> mapSessionByToken = new ConcurrentHashMap<String, Session>();  // Token → session
+    private final List<ArrayDeque<Session>> wheelSlotList;  // Tick % slots → sessions due then
+    private final SecureRandom secureRandom = new SecureRandom();  // Token source
+
+    private long longLastTick;  // Last tick processed (ticker thread only)
+
+    private final ScheduledExecutorService tickExecutor = Executors.newSingleThreadScheduledExecutor(runnable ->
+    {
+        Thread thread = new Thread(runnable, "session-expiry");
+        thread.setDaemon(true);  // Never keep the application alive
+        return thread;
+    });
+
+
+    /**
+     * Constructs a session manager with a 30-minute idle timeout
+     */
+    public SessionManager()
+    {
+        this(longDefaultIdleMillis, longDefaultTickMillis);
+    }
+
+
+    /**
+     * Constructs a session manager
+     * @param longIdleMillis - idle time after which a session expires
+     * @param longTickMillis - expiry resolution; sessions end at most one tick late
+     * @throws IllegalArgumentException if either duration is less than 1
+     */
+    public SessionManager(long longIdleMillis, long longTickMillis)
+    {
+        if (longIdleMillis < 1 || longTickMillis < 1)  // Validate durations
+        {
+            throw new IllegalArgumentException("Idle timeout and tick must be at least 1 ms");
+        }
+
+        this.longIdleMillis = longIdleMillis;
+        this.longTickMillis = longTickMillis;
+        this.wheelSlotList  = new ArrayList<ArrayDeque<Session>>(intWheelSlots);
+
+        for (int intI = 0; intI < intWheelSlots; intI++)
+        {
+            wheelSlotList.add(new ArrayDeque<Session>());
+        }
+
+        longLastTick = System.currentTimeMillis() / longTickMillis;
+        tickExecutor.scheduleAtFixedRate(this::advance, longTickMillis, longTickMillis, TimeUnit.MILLISECONDS);
+    }
+
+
+    /**
+     * Starts a session for a user who has just logged in
+     * @param user - the authenticated user (e.g. from UserManager.loginUser)
+     * @return - a new opaque session token
+     * @throws IllegalArgumentException if the user is null
+     */
+    public String createSession(User user)
+    {
+        if (user == null)  // Only authenticated users get sessions
+        {
+            throw new IllegalArgumentException("User cannot be null");
+        }
+
+        byte[] byteTokenArr = new byte[intTokenBytes];
+        secureRandom.nextBytes(byteTokenArr);
+
+        String  strToken = Base64.getUrlEncoder().withoutPadding().encodeToString(byteTokenArr);
+        Session session  = new Session(strToken, user, System.currentTimeMillis() + longIdleMillis);
+
+        mapSessionByToken.put(strToken, session);
+        schedule(session, session.longExpiresAt);
+
+        return strToken;
+    }
+
+
+    /**
+     * Looks up the user behind a token and extends the session's idle timeout
+     * @param strToken - the session token
+     * @return - the session's user, or null if the token is unknown or expired
+     */
+    public User validateSession(String strToken)
+    {
+        if (strToken == null)  // No session
+        {
+            return null;
+        }
+
+        Session session = mapSessionByToken.get(strToken);  // Lock-free read
+        long    longNow = System.currentTimeMillis();
+
+        if (session == null || session.longExpiresAt <= longNow)  // Unknown, or expired but not yet swept
+        {
+            return null;
+        }
+
+        session.longExpiresAt = longNow + longIdleMillis;  // Slide; the wheel catches up lazily
+        return session.user;
+    }
+
+
+    /**
+     * Ends a session immediately (e.g. on log out)
+     * @param strToken - the session token
+     */
+    public void invalidateSession(String strToken)
+    {
+        if (strToken != null)
+        {
+            mapSessionByToken.remove(strToken);  // Its wheel entry is dropped when its slot comes round
+        }
+    }
+
+
+    /**
+     * Gets the number of sessions not yet removed
+     * @return - the session count (may include sessions expired within the last tick)
+     */
+    public int getIntActiveSessionCount()
+    {
+        return mapSessionByToken.size();
+    }
+
+
+    /**
+     * Stops the expiry ticker
+     */
+    public void shutdown()
+    {
+        tickExecutor.shutdownNow();
+    }
+
+
+    /**
+     * Puts a session in the wheel slot of its expiry tick, or of the next tick if that has already come
+     * @param session - the session
+     * @param longExpiresAt - the expiry time the slot is chosen for
+     */
+    private void schedule(Session session, long longExpiresAt)
+    {
+        long longTick = Math.max(longExpiresAt / longTickMillis, System.currentTimeMillis() / longTickMillis + 1);
+        ArrayDeque<Session> slot = wheelSlotList.get((int) (longTick % intWheelSlots));
+
+        synchronized (slot)  // Only creation and the ticker write slots; validation never does
+        {
+            slot.add(session);
+        }
+    }
+
+
+    /**
+     * Processes every tick up to now: expires due sessions and re-slots touched ones
+     */
+    private void advance()
+    {
+        long longNow     = System.currentTimeMillis();
+        long longNowTick = longNow / longTickMillis;
+
+        for (long longTick = longLastTick + 1; longTick <= longNowTick; longTick++)
+        {
+            ArrayDeque<Session> slot = wheelSlotList.get((int) (longTick % intWheelSlots));
+            List<Session> dueList;
+
+            synchronized (slot)  // Take the slot's entries, then work without the lock
+            {
+                dueList = new ArrayList<Session>(slot);
+                slot.clear();
+            }
+
+            for (Session session : dueList)
+            {
+                if (mapSessionByToken.get(session.strToken) != session)  // Already invalidated
+                {
+                    continue;
+                }
+
+                long longExpiresAt = session.longExpiresAt;
+
+                if (longExpiresAt <= longNow)  // Idle too long
+                {
+                    mapSessionByToken.remove(session.strToken, session);
+                }
+                else  // Touched since slotted, or due on a later lap of the wheel
+                {
+                    schedule(session, longExpiresAt);
+                }
+            }
+        }
+
+        longLastTick = longNowTick;
+    }
+
+
+    /**
+     * Inner class holding one session
+     */
+    private static class Session
+    {
+        final String  strToken;       // Opaque token
+        final User    user;           // Authenticated user
+        volatile long longExpiresAt;  // Expiry time; moved forward on each validation
+
+
+        Session(String strToken, User user, long longExpiresAt)
+        {
+            this.strToken      = strToken;
+            this.user          = user;
+            this.longExpiresAt = longExpiresAt;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * File: SimilarReaderCandidateGenerator.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Candidates from books highly rated by the user's nearest readers
+ *  - Neighbors come from the MinHash/LSH UserSimilarityIndex
+**/
+package service;
+
+import java.util.List;
+import java.util.function.Function;
+
+import model.Book;
+import model.Rating;
+
+class SimilarReaderCandidateGenerator implements CandidateGenerator
+{
+    private static final int intMinPositiveRating = 4;   // Neighbor ratings at or above this are offered
+    private static final int intNeighborLimit     = 20;  // Similar readers consulted per request
+
+    private UserSimilarityIndex userSimilarityIndex;             // Approximate neighbor lookup
+    private Function<String, List<Rating>> userRatingsLookup;    // User ID → that user's ratings
+    private BookDatabase bookDatabase;                           // Resolves book IDs to books
+
+
+    /**
+     * Constructs the generator
+     * @param userSimilarityIndex - the index used to find similar readers
+     * @param userRatingsLookup - returns a user's ratings (empty if none)
+     * @param bookDatabase - the BookDatabase resolving book IDs
+     */
+    SimilarReaderCandidateGenerator(UserSimilarityIndex userSimilarityIndex,
+                                    Function<String, List<Rating>> userRatingsLookup, BookDatabase bookDatabase)
+    {
+        this.userSimilarityIndex = userSimilarityIndex;
+        this.userRatingsLookup   = userRatingsLookup;
+        this.bookDatabase        = bookDatabase;
+    }
+
+
+    @Override
+    public String getStrName()
+    {
+        return "similar-readers";
+    }
+
+
+    @Override
+    public void generate(CandidateRequest request, CandidatePool pool)
+    {
+        for (String strNeighbor : userSimilarityIndex.findNeighbors(request.strUserId, intNeighborLimit))
+        {
+            for (Rating rating : userRatingsLookup.apply(strNeighbor))
+            {
+                if (rating.getIntRating() < intMinPositiveRating)  // Only books the neighbor liked
+                {
+                    continue;
+                }
+
+                Book book = bookDatabase.findBookById(rating.getStrBookId());
+
+                if (book != null && !pool.offer(book))  // Stage or pool full
+                {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ * File: TopKSelector.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Selects the K highest-scoring candidates from a primitive score array
+ *  - Keeps a size-K min-heap of candidate indexes so selection is O(N log K)
+ *  - Breaks score ties deterministically by preferring the lower candidate index
+ *  - Reuses its score and heap buffers between calls to avoid per-request allocation
+ *  - Not thread-safe: each thread should use its own instance
+**/
+package service;
+
+public class TopKSelector
+{
+    private double[] dblScoreArr = new double[0];  // Candidate index → score (reused)
+    private int[]    intHeapArr  = new int[0];     // Min-heap of candidate indexes (reused)
+    private int      intHeapSize = 0;              // Number of indexes currently in the heap
+    private int      intLimit    = 0;              // Maximum number of indexes to keep (K)
+
+
+    /**
+     * Prepares the selector for a new round of selection
+     * @param intCandidateCount - number of candidates that may be scored
+     * @param intLimit - maximum number of results to keep (K)
+     * @return - score array with room for intCandidateCount entries
+     */
+    public double[] prepare(int intCandidateCount, int intLimit)
+    {
+        if (dblScoreArr.length < intCandidateCount)  // Grow score buffer
+        {
+            dblScoreArr = new double[intCandidateCount];
+        }
+
+        this.intLimit    = Math.max(0, intLimit);
+        this.intHeapSize = 0;
+
+        if (intHeapArr.length < this.intLimit)  // Grow heap buffer
+        {
+            intHeapArr = new int[this.intLimit];
+        }
+
+        return dblScoreArr;
+    }
+
+
+    /**
+     * Offers a scored candidate; its score must already be in the score array
+     * @param intIndex - the candidate index
+     */
+    public void offer(int intIndex)
+    {
+        if (intLimit == 0)  // Nothing to keep
+        {
+            return;
+        }
+
+        if (intHeapSize < intLimit)  // Heap not full yet
+        {
+            intHeapArr[intHeapSize] = intIndex;
+            siftUp(intHeapSize++);
+        }
+        else if (isWorse(intHeapArr[0], intIndex))  // Beats the current worst
+        {
+            intHeapArr[0] = intIndex;
+            siftDown(0);
+        }
+    }
+
+
+    /**
+     * Empties the heap and returns the kept candidate indexes best-first
+     * @return - candidate indexes ordered by descending score, ties by ascending index
+     */
+    public int[] drainDescending()
+    {
+        int[] intResultArr = new int[intHeapSize];  // Results
+
+        for (int intI = intResultArr.length - 1; intI >= 0; intI--)  // Pop worst into the back
+        {
+            intResultArr[intI] = intHeapArr[0];
+            intHeapArr[0]      = intHeapArr[--intHeapSize];
+            siftDown(0);
+        }
+
+        return intResultArr;
+    }
+
+
+    /**
+     * Checks whether candidate A ranks below candidate B
+     * @param intA - first candidate index
+     * @param intB - second candidate index
+     * @return - true if A has a lower score, or an equal score and a higher index
+     */
+    private boolean isWorse(int intA, int intB)
+    {
+        int intCmp = Double.compare(dblScoreArr[intA], dblScoreArr[intB]);
+        return intCmp < 0 || (intCmp == 0 && intA > intB);
+    }
+
+
+    /**
+     * Moves a heap entry up until the heap property holds
+     * @param intPos - position of the entry in the heap
+     */
+    private void siftUp(int intPos)
+    {
+        int intItem = intHeapArr[intPos];  // Entry being moved
+
+        while (intPos > 0)
+        {
+            int intParent = (intPos - 1) >>> 1;
+
+            if (!isWorse(intItem, intHeapArr[intParent]))  // Parent already worse
+            {
+                break;
+            }
+
+            intHeapArr[intPos] = intHeapArr[intParent];
+            intPos = intParent;
+        }
+
+        intHeapArr[intPos] = intItem;
+    }
+
+
+    /**
+     * Moves a heap entry down until the heap property holds
+     * @param intPos - position of the entry in the heap
+     */
+    private void siftDown(int intPos)
+    {
+        if (intHeapSize == 0)  // Empty heap
+        {
+            return;
+        }
+
+        int intItem = intHeapArr[intPos];  // Entry being moved
+
+        while (true)
+        {
+            int intChild = 2 * intPos + 1;
+
+            if (intChild >= intHeapSize)  // Reached a leaf
+            {
+                break;
+            }
+
+            if (intChild + 1 < intHeapSize && isWorse(intHeapArr[intChild + 1], intHeapArr[intChild]))
+            {
+                intChild++;  // Pick the worse child
+            }
+
+            if (!isWorse(intHeapArr[intChild], intItem))  // Entry already worse than children
+            {
+                break;
+            }
+
+            intHeapArr[intPos] = intHeapArr[intChild];
+            intPos = intChild;
+        }
+
+        intHeapArr[intPos] = intItem;
+    }
+}
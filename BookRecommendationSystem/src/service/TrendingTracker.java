@@ -0,0 +1,302 @@
+/**
+ * File: TrendingTracker.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Detects trending books from the stream of borrow events
+ *  - Keeps one ring of time slots per TrendingWindow (last hour, day, week)
+ *  - Each slot holds a count-min sketch of borrows per book and a small
+ *    space-saving list of that slot's heavy hitters
+ *  - A window's trending books are the heavy hitters of its live slots,
+ *    ranked by their count-min estimate summed over those slots
+ *  - Memory is fixed at construction and does not grow with traffic or catalog size
+ *  - Books are keyed by catalog column index; held in memory and rebuilt at
+ *    startup by replaying the borrow log (events may arrive in any order)
+**/
+package service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import model.Book;
+
+public class TrendingTracker
+{
+    private static final int intSketchDepth    = 4;    // Count-min rows (independent hashes)
+    private static final int intSketchWidth    = 512;  // Counters per row (power of two)
+    private static final int intHitterCapacity = 32;   // Heavy hitters kept per slot
+
+    private static final long[] longSeedArr =
+        { 0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0x27D4EB2F165667C5L };  // Row hash seeds
+
+    private CatalogColumns catalogColumns;  // Maps books to compact column indexes
+    private WindowRing[]   windowRingArr;   // TrendingWindow ordinal → slot ring
+
+
+    /**
+     * Constructs an empty tracker
+     * @param catalogColumns - the catalog columns whose indexes identify books
+     */
+    public TrendingTracker(CatalogColumns catalogColumns)
+    {
+        this.catalogColumns = catalogColumns;
+        this.windowRingArr  = new WindowRing[TrendingWindow.values().length];
+
+        for (TrendingWindow window : TrendingWindow.values())
+        {
+            windowRingArr[window.ordinal()] = new WindowRing(window);
+        }
+    }
+
+
+    /**
+     * Records one borrow of a book in every window
+     * @param book - the borrowed Book
+     * @param longTimeMillis - when the borrow happened
+     */
+    public synchronized void record(Book book, long longTimeMillis)
+    {
+        int intKey = catalogColumns.indexOf(book);
+
+        if (intKey < 0)  // Not part of the indexed catalog
+        {
+            return;
+        }
+
+        int[] intBucketArr = new int[intSketchDepth];  // Counter column per sketch row
+
+        for (int intRow = 0; intRow < intSketchDepth; intRow++)
+        {
+            intBucketArr[intRow] = bucket(intKey, intRow);
+        }
+
+        for (WindowRing ring : windowRingArr)
+        {
+            ring.add(intKey, intBucketArr, longTimeMillis);
+        }
+    }
+
+
+    /**
+     * Gets the books borrowed most within a recent time window
+     * @param window - the time window to look back over
+     * @param intCount - maximum number of books to return
+     * @param longNowMillis - the current time
+     * @return - trending books, most borrowed first; empty if nothing was borrowed in the window
+     */
+    public synchronized ArrayList<Book> getTrendingBooks(TrendingWindow window, int intCount, long longNowMillis)
+    {
+        WindowRing ring       = windowRingArr[window.ordinal()];
+        int[]      intKeyArr  = ring.candidates(longNowMillis);
+        ArrayList<Book> bookListResult = new ArrayList<Book>();  // Results
+
+        TopKSelector selector    = new TopKSelector();
+        double[]     dblScoreArr = selector.prepare(intKeyArr.length, intCount);
+
+        for (int intI = 0; intI < intKeyArr.length; intI++)
+        {
+            dblScoreArr[intI] = ring.estimate(intKeyArr[intI], longNowMillis);
+            selector.offer(intI);
+        }
+
+        for (int intI : selector.drainDescending())
+        {
+            bookListResult.add(catalogColumns.getBook(intKeyArr[intI]));
+        }
+
+        return bookListResult;
+    }
+
+
+    /**
+     * Gets the estimated number of borrows of a book within a window
+     * @param book - the book to look up
+     * @param window - the time window to look back over
+     * @param longNowMillis - the current time
+     * @return - estimated borrow count; never below the true count
+     */
+    public synchronized long estimateBorrows(Book book, TrendingWindow window, long longNowMillis)
+    {
+        int intKey = catalogColumns.indexOf(book);
+        return (intKey < 0) ? 0 : windowRingArr[window.ordinal()].estimate(intKey, longNowMillis);
+    }
+
+
+    /**
+     * Maps a key to its counter in one sketch row
+     */
+    private static int bucket(int intKey, int intRow)
+    {
+        return (int) (Hashing.seededHash(intKey, longSeedArr[intRow]) >>> 40) & (intSketchWidth - 1);
+    }
+
+
+    /**
+     * Ring of time slots for one window; a slot is reused once its epoch falls out of the window
+     */
+    private static class WindowRing
+    {
+        private int     intSlotCount;       // Slots in the ring
+        private long    longSlotMillis;     // Length of one slot
+        private long[]  longEpochArr;       // Slot → epoch (time / slot length) it currently counts
+        private int[][] intSketchArr;       // Slot → count-min counters (depth × width)
+        private int[][] intHitterKeyArr;    // Slot → space-saving keys
+        private int[][] intHitterCountArr;  // Slot → space-saving counts
+        private int[]   intHitterSizeArr;   // Slot → heavy hitters in use
+
+
+        WindowRing(TrendingWindow window)
+        {
+            intSlotCount      = window.getIntSlotCount();
+            longSlotMillis    = window.getLongSlotMillis();
+            longEpochArr      = new long[intSlotCount];
+            intSketchArr      = new int[intSlotCount][intSketchDepth * intSketchWidth];
+            intHitterKeyArr   = new int[intSlotCount][intHitterCapacity];
+            intHitterCountArr = new int[intSlotCount][intHitterCapacity];
+            intHitterSizeArr  = new int[intSlotCount];
+
+            Arrays.fill(longEpochArr, Long.MIN_VALUE);  // No slot counts anything yet
+        }
+
+
+        /**
+         * Adds one event to the slot covering its time
+         */
+        void add(int intKey, int[] intBucketArr, long longTimeMillis)
+        {
+            long longEpoch = Math.floorDiv(longTimeMillis, longSlotMillis);
+            int  intSlot   = (int) Math.floorMod(longEpoch, (long) intSlotCount);
+
+            if (longEpochArr[intSlot] != longEpoch)  // Slot held an older epoch: expire it
+            {
+                if (longEpochArr[intSlot] > longEpoch)  // Event older than what the slot now holds
+                {
+                    return;
+                }
+
+                Arrays.fill(intSketchArr[intSlot], 0);
+                intHitterSizeArr[intSlot] = 0;
+                longEpochArr[intSlot]     = longEpoch;
+            }
+
+            int[] intCounterArr = intSketchArr[intSlot];
+
+            for (int intRow = 0; intRow < intSketchDepth; intRow++)
+            {
+                intCounterArr[intRow * intSketchWidth + intBucketArr[intRow]]++;
+            }
+
+            offerHitter(intSlot, intKey);
+        }
+
+
+        /**
+         * Space-saving update: count a tracked key, or replace the smallest entry
+         */
+        private void offerHitter(int intSlot, int intKey)
+        {
+            int[] intKeyArr   = intHitterKeyArr[intSlot];
+            int[] intCountArr = intHitterCountArr[intSlot];
+            int   intSize     = intHitterSizeArr[intSlot];
+            int   intMinPos   = 0;
+
+            for (int intI = 0; intI < intSize; intI++)
+            {
+                if (intKeyArr[intI] == intKey)  // Already tracked
+                {
+                    intCountArr[intI]++;
+                    return;
+                }
+
+                if (intCountArr[intI] < intCountArr[intMinPos])
+                {
+                    intMinPos = intI;
+                }
+            }
+
+            if (intSize < intHitterCapacity)  // Free entry
+            {
+                intKeyArr[intSize]   = intKey;
+                intCountArr[intSize] = 1;
+                intHitterSizeArr[intSlot]++;
+            }
+            else  // Evict the smallest; the newcomer inherits its count
+            {
+                intKeyArr[intMinPos] = intKey;
+                intCountArr[intMinPos]++;
+            }
+        }
+
+
+        /**
+         * Checks whether a slot counts events inside the window ending now
+         */
+        private boolean isLive(int intSlot, long longNowEpoch)
+        {
+            long longEpoch = longEpochArr[intSlot];
+            return longEpoch <= longNowEpoch && longEpoch > longNowEpoch - intSlotCount;
+        }
+
+
+        /**
+         * Collects the distinct heavy hitters of all live slots
+         */
+        int[] candidates(long longNowMillis)
+        {
+            long  longNowEpoch = Math.floorDiv(longNowMillis, longSlotMillis);
+            int[] intKeyArr    = new int[intSlotCount * intHitterCapacity];
+            int   intCount     = 0;
+
+            for (int intSlot = 0; intSlot < intSlotCount; intSlot++)
+            {
+                if (isLive(intSlot, longNowEpoch))
+                {
+                    System.arraycopy(intHitterKeyArr[intSlot], 0, intKeyArr, intCount, intHitterSizeArr[intSlot]);
+                    intCount += intHitterSizeArr[intSlot];
+                }
+            }
+
+            Arrays.sort(intKeyArr, 0, intCount);
+            int intDistinct = 0;
+
+            for (int intI = 0; intI < intCount; intI++)  // Drop duplicates
+            {
+                if (intDistinct == 0 || intKeyArr[intI] != intKeyArr[intDistinct - 1])
+                {
+                    intKeyArr[intDistinct++] = intKeyArr[intI];
+                }
+            }
+
+            return Arrays.copyOf(intKeyArr, intDistinct);
+        }
+
+
+        /**
+         * Count-min estimate of a key over all live slots
+         */
+        long estimate(int intKey, long longNowMillis)
+        {
+            long longNowEpoch = Math.floorDiv(longNowMillis, longSlotMillis);
+            long longMin      = Long.MAX_VALUE;
+
+            for (int intRow = 0; intRow < intSketchDepth; intRow++)
+            {
+                int  intPos  = intRow * intSketchWidth + bucket(intKey, intRow);
+                long longSum = 0;
+
+                for (int intSlot = 0; intSlot < intSlotCount; intSlot++)
+                {
+                    if (isLive(intSlot, longNowEpoch))
+                    {
+                        longSum += intSketchArr[intSlot][intPos];
+                    }
+                }
+
+                longMin = Math.min(longMin, longSum);
+            }
+
+            return longMin;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * File: TrendingWindow.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Enumerates the sliding time windows TrendingTracker counts borrows over
+ *  - Each window is a ring of fixed-length slots; the oldest slot expires as time moves on
+**/
+package service;
+
+public enum TrendingWindow
+{
+    HOUR(12, 5L * 60 * 1000),        // 12 slots of 5 minutes
+    DAY(24, 60L * 60 * 1000),        // 24 slots of 1 hour
+    WEEK(14, 12L * 60 * 60 * 1000);  // 14 slots of 12 hours
+
+    private final int  intSlotCount;   // Slots in the ring
+    private final long longSlotMillis; // Length of one slot
+
+
+    TrendingWindow(int intSlotCount, long longSlotMillis)
+    {
+        this.intSlotCount   = intSlotCount;
+        this.longSlotMillis = longSlotMillis;
+    }
+
+
+    /**
+     * Gets the number of slots in the window
+     * @return - the slot count
+     */
+    public int getIntSlotCount()
+    {
+        return intSlotCount;
+    }
+
+
+    /**
+     * Gets the length of one slot
+     * @return - slot length in milliseconds
+     */
+    public long getLongSlotMillis()
+    {
+        return longSlotMillis;
+    }
+}
@@ -8,18 +8,43 @@
  *  - Allows registration of new users with unique username check
  *  - Authenticates existing users on login
  *  - Recovers forgotten password via security answer and generates temporary password
+ *  - Indexes users by case-folded username so lookups and logins are O(1)
+ *  - Persists registrations and password changes as single lines in an
+ *    append-only log (UserLog), compacted into users.csv in the background
+ *  - Stores salted PBKDF2 password hashes; plain-text or cheaper hashes are
+ *    replaced on the user's next successful login
+ *  - Verifies passwords on a bounded worker pool so a login storm is turned
+ *    away instead of taking every core
+ *  - Rate-limits login and recovery attempts per username and overall, so
+ *    brute-force traffic is rejected before any lookup, hashing or disk I/O
 **/
 package service;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Random;
 
 import model.User;
 import util.FileUtils;
+import util.PasswordHasher;
+import util.UserLog;
 
 public class UserManager 
 {
     private ArrayList<User> userList;  // List of application users
+    private Map<String, User> mapUserByName;  // Upper-cased username → user
+    private UserLog userLog;  // Append-only store of user changes
+
+    private static final int  intVerifyQueueLimit     = 64;    // Logins waiting for a verification thread
+    private static final long longVerifyTimeoutMillis = 2000;  // Longest a login waits for verification
+
+    private volatile int intHashIterations = PasswordHasher.intDefaultIterations;  // PBKDF2 cost for new hashes
+    private PasswordVerificationPool passwordVerificationPool;  // Bounded threads for hash checks
+
+    private final LoginRateLimiter loginRateLimiter    = new LoginRateLimiter(5, 12000, 200, 20);  // 5/min per user, 50/s overall
+    private final LoginRateLimiter recoveryRateLimiter = new LoginRateLimiter(3, 60000, 50, 100);  // 1/min per user, 10/s overall
 
 
     /**
@@ -27,7 +52,18 @@ public class UserManager
      */
     public UserManager() 
     {
-        userList = FileUtils.loadUsersFromCSV();  // Load stored users
+        userLog  = new UserLog(FileUtils.getUserFilePath(), FileUtils.getUserLogFilePath());
+        userList = userLog.load();  // Load stored users: snapshot plus logged changes
+        passwordVerificationPool = new PasswordVerificationPool(
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2),  // Leave cores for recommendations and search
+            intVerifyQueueLimit, longVerifyTimeoutMillis);
+        mapUserByName = new HashMap<String, User>(userList.size() * 2);
+
+        for (User user : userList)  // Build the index once; the first of any case-insensitive duplicates wins
+        {
+            mapUserByName.putIfAbsent(foldUsername(user.getStrUsername()), user);
+        }
+
         System.out.println("Loaded " + userList.size() + " users");  // Debug info
     }
 
@@ -38,19 +74,39 @@ public class UserManager
      * @param strPassword - the user's password
      * @param strSecurityQ - the security question text
      * @param strSecurityA - the security question answer
-     * @return - true if registration succeeded; false if username already exists
+     * @return - true if registration succeeded; false if username already exists or the service is busy
      * @throws IllegalArgumentException if username is empty or password is too short
      */
     public boolean registerUser(String strUsername, String strPassword, String strSecurityQ, String strSecurityA) 
     {
+        if (strUsername == null || strUsername.isEmpty())  // Username is the index key
+        {
+            throw new IllegalArgumentException("Username cannot be empty");
+        }
+
+        if (strPassword == null)  // Nothing to hash
+        {
+            throw new IllegalArgumentException("Password cannot be empty");
+        }
+
         if (findUserByUsername(strUsername) != null)  // Check uniqueness
         {
             return false;  
         }
 
-        User user = new User(strUsername, strPassword, strSecurityQ, strSecurityA);  // Create user
+        String strHash = passwordVerificationPool.hash(strPassword, intHashIterations);  // Runs on the bounded pool
+
+        if (strHash == null)  // Pool saturated: shed load rather than hash on the caller
+        {
+            System.out.println("The registration service is busy. Please try again shortly.");
+            return false;
+        }
+
+        User user = new User(strUsername, strHash, strSecurityQ, strSecurityA);  // Create user with a salted hash
         userList.add(user);  // Add to list
-        FileUtils.saveUsersToCSV(userList);  // Persist updated list
+        mapUserByName.put(foldUsername(strUsername), user);  // Keep index current
+        userLog.appendRegistration(user);  // Persist as a single log line
+        compactIfNeeded();
 
         return true;
     }
@@ -60,20 +116,50 @@ public class UserManager
      * Authenticates a user by username and password
      * @param strUsername - the username to check
      * @param strPassword- the password to verify
-     * @return - User object if credentials match; null if not found
+     * @return - User object if credentials match; null if not found, wrong, rate-limited, or the login service is busy
      */
     public User loginUser(String strUsername, String strPassword) 
     {
-        for (User user : userList)  // Iterate users
+        if (!loginRateLimiter.tryAcquire(strUsername))  // Too many attempts: reject before any work
+        {
+            System.out.println("Too many login attempts. Please wait and try again.");
+            return null;
+        }
+
+        User user = findUserByUsername(strUsername);  // Indexed lookup
+
+        if (user == null)  // No matching user
+        {
+            return null;
+        }
+
+        String  strStored = user.getStrPassword();
+        Boolean isMatch   = passwordVerificationPool.verify(strPassword, strStored);  // Runs on the bounded pool
+
+        if (isMatch == null)  // Pool saturated: shed load rather than queue without limit
         {
-            if (user.getStrUsername().equalsIgnoreCase(strUsername)  // Username match
-                && user.authenticate(strPassword))  // Password check
+            System.out.println("The login service is busy. Please try again shortly.");
+            return null;
+        }
+
+        if (!isMatch)  // Wrong password
+        {
+            return null;
+        }
+
+        if (PasswordHasher.needsRehash(strStored, intHashIterations))  // Migrate plain text or an old cost
+        {
+            String strHash = passwordVerificationPool.hash(strPassword, intHashIterations);
+
+            if (strHash != null)  // Pool busy: keep the old hash and migrate on a later login
             {
-                return user;  
+                user.setStrPassword(strHash);
+                userLog.appendPasswordChange(user);
+                compactIfNeeded();
             }
         }
 
-        return null;  // No matching user
+        return user;  
     }
 
 
@@ -81,17 +167,32 @@ public class UserManager
      * Recovers a forgotten password using security answer
      * @param strUsername - the username to recover
      * @param strSecurityA - the provided security answer
-     * @return - new temporary password if recovery succeeded; null if failed 
+     * @return - new temporary password if recovery succeeded; null if failed, rate-limited, or the service is busy
      */
     public String recoverPassword(String strUsername, String strSecurityA) 
     {
+        if (!recoveryRateLimiter.tryAcquire(strUsername))  // Too many attempts: reject before any work
+        {
+            System.out.println("Too many recovery attempts. Please wait and try again.");
+            return null;
+        }
+
         User user = findUserByUsername(strUsername);  // Lookup user
 
         if (user != null && user.validateSecurityAnswer(strSecurityA))  // Validate answer
         {
             String strNewPwd = generateTempPassword();  // Generate temp password
-            user.setStrPassword(strNewPwd);  // Update user password
-            FileUtils.saveUsersToCSV(userList);  // Persist change
+            String strHash   = passwordVerificationPool.hash(strNewPwd, intHashIterations);  // Runs on the bounded pool
+
+            if (strHash == null)  // Pool saturated: leave the old password in place
+            {
+                System.out.println("The recovery service is busy. Please try again shortly.");
+                return null;
+            }
+
+            user.setStrPassword(strHash);  // Store only the hash
+            userLog.appendPasswordChange(user);  // Persist change
+            compactIfNeeded();
 
             return strNewPwd;
         }
@@ -107,15 +208,112 @@ public class UserManager
      */
     public User findUserByUsername(String strUsername) 
     {
-        for (User user : userList)  // Iterate users
+        if (strUsername == null)  // Nothing to look up
         {
-            if (user.getStrUsername().equalsIgnoreCase(strUsername))  // Match
-            {
-                return user;  
-            }
+            return null;
+        }
+
+        return mapUserByName.get(foldUsername(strUsername));  // Case-insensitive match
+    }
+
+
+    /**
+     * Folds a username to the key used by the username index
+     * @param strUsername - the username
+     * @return - the upper-cased username
+     */
+    private static String foldUsername(String strUsername)
+    {
+        return strUsername.toUpperCase(Locale.ROOT);
+    }
+
+
+    /**
+     * Folds the user log into a new users.csv snapshot in the background once it is large enough
+     */
+    private void compactIfNeeded() 
+    {
+        if (userLog.needsCompaction())
+        {
+            userLog.compactAsync(userList);
         }
+    }
+
+
+    /**
+     * Waits for any running user log compaction, closes the log and stops the verification threads
+     */
+    public void flush() 
+    {
+        userLog.close();
+        passwordVerificationPool.shutdown();
+    }
+
+
+    /**
+     * Sets the PBKDF2 cost used for new and migrated password hashes
+     * Existing hashes at a lower cost are upgraded on the user's next login
+     * @param intHashIterations - the iteration count
+     * @throws IllegalArgumentException if the iteration count is less than 1
+     */
+    public void setIntHashIterations(int intHashIterations) 
+    {
+        if (intHashIterations < 1)  // Validate cost
+        {
+            throw new IllegalArgumentException("Iteration count must be at least 1");
+        }
+
+        this.intHashIterations = intHashIterations;
+    }
+
+
+    /**
+     * Gets the PBKDF2 cost used for new password hashes
+     * @return - the iteration count
+     */
+    public int getIntHashIterations() 
+    {
+        return intHashIterations;
+    }
+
 
-        return null;  // Not found
+    /**
+     * Gets the pool that runs password verification
+     * @return - the verification pool (for monitoring)
+     */
+    public PasswordVerificationPool getPasswordVerificationPool() 
+    {
+        return passwordVerificationPool;
+    }
+
+
+    /**
+     * Gets the rate limiter applied to login attempts
+     * @return - the login rate limiter (for monitoring)
+     */
+    public LoginRateLimiter getLoginRateLimiter() 
+    {
+        return loginRateLimiter;
+    }
+
+
+    /**
+     * Gets the rate limiter applied to password recovery attempts
+     * @return - the recovery rate limiter (for monitoring)
+     */
+    public LoginRateLimiter getRecoveryRateLimiter() 
+    {
+        return recoveryRateLimiter;
+    }
+
+
+    /**
+     * Retrieves a defensive copy of all users
+     * @return - list of all User objects
+     */
+    public ArrayList<User> getAllUsers() 
+    {
+        return new ArrayList<User>(userList);  // Return copy
     }
 
 
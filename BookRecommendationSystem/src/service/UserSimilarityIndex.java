@@ -0,0 +1,256 @@
+/**
+ * File: UserSimilarityIndex.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Approximate user-user similarity index for "readers like you" recommendations
+ *  - Keeps a MinHash signature per user over the set of books they rated highly
+ *  - Buckets signatures with LSH banding so similar readers are found without
+ *    comparing against every user
+ *  - Estimates Jaccard similarity from the fraction of matching signature slots
+ *  - Updating one user only rehashes that user's signature and bucket entries
+**/
+package service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+import model.Rating;
+
+public class UserSimilarityIndex
+{
+    private static final int intMinPositiveRating = 4;    // Ratings at or above this count as "liked"
+    private static final int intMaxBucketScan     = 256;  // Members examined per bucket per query
+
+    private final int    intBandCount;  // Number of LSH bands
+    private final int    intRowCount;   // Signature slots per band
+    private final long[] longSeedArr;   // One seed per signature slot
+
+    private final Map<String, int[]>     mapSignatureByUser = new ConcurrentHashMap<String, int[]>();     // User → signature
+    private final Map<Long, Set<String>> mapUsersByBucket   = new ConcurrentHashMap<Long, Set<String>>(); // Band hash → users
+
+
+    /**
+     * Constructs an empty index
+     * @param intBandCount - number of LSH bands (more bands find less similar neighbors)
+     * @param intRowCount - slots per band (more rows make buckets stricter)
+     * @throws IllegalArgumentException if either value is less than 1
+     */
+    public UserSimilarityIndex(int intBandCount, int intRowCount)
+    {
+        if (intBandCount < 1 || intRowCount < 1)  // Validate banding
+        {
+            throw new IllegalArgumentException("Band and row counts must be at least 1");
+        }
+
+        this.intBandCount = intBandCount;
+        this.intRowCount  = intRowCount;
+        this.longSeedArr  = new long[intBandCount * intRowCount];
+
+        SplittableRandom random = new SplittableRandom(0x5EEDL);  // Fixed seeds keep signatures stable
+
+        for (int intI = 0; intI < longSeedArr.length; intI++)
+        {
+            longSeedArr[intI] = random.nextLong();
+        }
+    }
+
+
+    /**
+     * Recomputes one user's signature from their ratings and re-buckets them
+     * @param strUserId - the user's unique identifier
+     * @param userRatingList - the user's current ratings
+     */
+    public void updateUser(String strUserId, List<Rating> userRatingList)
+    {
+        int[] intSignatureArr = null;  // Null until the user has a liked book
+
+        for (Rating rating : userRatingList)
+        {
+            if (rating.getIntRating() < intMinPositiveRating)  // Only liked books
+            {
+                continue;
+            }
+
+            if (intSignatureArr == null)
+            {
+                intSignatureArr = new int[longSeedArr.length];
+                Arrays.fill(intSignatureArr, Integer.MAX_VALUE);
+            }
+
+            long longBookHash = Hashing.mix(rating.getStrBookId().hashCode());
+
+            for (int intI = 0; intI < longSeedArr.length; intI++)  // Keep the minimum per hash function
+            {
+                int intHash = (int) (Hashing.seededHash(longBookHash, longSeedArr[intI]) >>> 33);  // Non-negative 31-bit hash
+                intSignatureArr[intI] = Math.min(intSignatureArr[intI], intHash);
+            }
+        }
+
+        int[] intOldArr = (intSignatureArr == null)
+                        ? mapSignatureByUser.remove(strUserId)
+                        : mapSignatureByUser.put(strUserId, intSignatureArr);
+
+        if (intOldArr != null)  // Leave the old buckets, dropping any left empty
+        {
+            for (int intBand = 0; intBand < intBandCount; intBand++)
+            {
+                mapUsersByBucket.computeIfPresent(bucketKey(intOldArr, intBand), (k, setBucket) ->
+                {
+                    setBucket.remove(strUserId);
+                    return setBucket.isEmpty() ? null : setBucket;
+                });
+            }
+        }
+
+        if (intSignatureArr != null)  // Join the new buckets (atomically, so a concurrent removal cannot drop the set)
+        {
+            for (int intBand = 0; intBand < intBandCount; intBand++)
+            {
+                mapUsersByBucket.compute(bucketKey(intSignatureArr, intBand), (k, setBucket) ->
+                {
+                    Set<String> setMembers = (setBucket == null) ? ConcurrentHashMap.<String>newKeySet() : setBucket;
+                    setMembers.add(strUserId);
+                    return setMembers;
+                });
+            }
+        }
+    }
+
+
+    /**
+     * Finds the users most similar to a given user
+     * @param strUserId - the user's unique identifier
+     * @param intCount - maximum number of neighbors
+     * @return - neighbor user IDs, most similar first; empty if the user has no liked books
+     */
+    public List<String> findNeighbors(String strUserId, int intCount)
+    {
+        int[] intSignatureArr = mapSignatureByUser.get(strUserId);
+
+        if (intSignatureArr == null)  // No liked books yet
+        {
+            return Collections.<String>emptyList();
+        }
+
+        Set<String> setCandidate = new HashSet<String>();  // Users sharing at least one bucket
+
+        for (int intBand = 0; intBand < intBandCount; intBand++)
+        {
+            Set<String> setBucket = mapUsersByBucket.get(bucketKey(intSignatureArr, intBand));
+
+            if (setBucket == null)
+            {
+                continue;
+            }
+
+            int intScanned = 0;
+
+            for (String strOther : setBucket)
+            {
+                if (++intScanned > intMaxBucketScan)  // Bound work in very popular buckets
+                {
+                    break;
+                }
+
+                if (!strOther.equals(strUserId))
+                {
+                    setCandidate.add(strOther);
+                }
+            }
+        }
+
+        List<String> strCandidateList = new ArrayList<String>(setCandidate);
+        TopKSelector selector    = new TopKSelector();
+        double[]     dblScoreArr = selector.prepare(strCandidateList.size(), intCount);
+
+        for (int intI = 0; intI < strCandidateList.size(); intI++)  // Rank by estimated Jaccard
+        {
+            dblScoreArr[intI] = estimateSimilarity(strUserId, strCandidateList.get(intI));
+            selector.offer(intI);
+        }
+
+        List<String> strNeighborList = new ArrayList<String>();
+
+        for (int intIndex : selector.drainDescending())
+        {
+            strNeighborList.add(strCandidateList.get(intIndex));
+        }
+
+        return strNeighborList;
+    }
+
+
+    /**
+     * Estimates the Jaccard similarity of two users' liked-book sets
+     * @param strUserA - first user ID
+     * @param strUserB - second user ID
+     * @return - estimated similarity between 0.0 and 1.0; 0.0 if either has no signature
+     */
+    public double estimateSimilarity(String strUserA, String strUserB)
+    {
+        int[] intArrA = mapSignatureByUser.get(strUserA);
+        int[] intArrB = mapSignatureByUser.get(strUserB);
+
+        if (intArrA == null || intArrB == null)  // Nothing to compare
+        {
+            return 0.0;
+        }
+
+        int intMatches = 0;
+
+        for (int intI = 0; intI < intArrA.length; intI++)
+        {
+            if (intArrA[intI] == intArrB[intI])
+            {
+                intMatches++;
+            }
+        }
+
+        return (double) intMatches / intArrA.length;
+    }
+
+
+    /**
+     * Gets the number of users with a signature
+     * @return - the indexed user count
+     */
+    public int getIntUserCount()
+    {
+        return mapSignatureByUser.size();
+    }
+
+
+    /**
+     * Gets the number of non-empty LSH buckets
+     * @return - the bucket count
+     */
+    public int getIntBucketCount()
+    {
+        return mapUsersByBucket.size();
+    }
+
+
+    /**
+     * Hashes one band of a signature into a bucket key
+     */
+    private long bucketKey(int[] intSignatureArr, int intBand)
+    {
+        long longKey = intBand;
+
+        for (int intRow = 0; intRow < intRowCount; intRow++)
+        {
+            longKey = Hashing.mix(longKey * 31 + intSignatureArr[intBand * intRowCount + intRow]);
+        }
+
+        return longKey;
+    }
+}
@@ -0,0 +1,264 @@
+/**
+ * File: WeightBandit.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Thompson-sampling bandit choosing between recommendation weight configurations
+ *  - Each arm is a (genre, author, rating, popularity) weight set; arm 0 follows
+ *    the engine's manually adjusted weights
+ *  - Models each arm's reward rate with a Beta posterior: successes are the
+ *    summed feedback rewards, trials the number of served lists
+ *  - Each arm can start from its own prior, so an incumbent configuration keeps
+ *    most traffic until a challenger has earned it
+ *  - All counters are LongAdders, so serving threads never take a lock
+ *  - Reports per-arm reward and the time spent choosing arms
+**/
+package service;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+public class WeightBandit
+{
+    private static final long longRewardScale = 1000000L;  // Rewards are summed in millionths
+
+    private final double[][]  dblArmWeightArr;    // Arm → {genre, author, rating, popularity}
+    private final String[]    strArmNameArr;      // Arm → display name
+    private final LongAdder[] longServedArr;      // Arm → lists served
+    private final LongAdder[] longRewardArr;      // Arm → summed reward (scaled)
+    private final double[]    dblPriorAlphaArr;   // Arm → Beta prior successes
+    private final double[]    dblPriorBetaArr;    // Arm → Beta prior failures
+    private final LongAdder   longSelectCount = new LongAdder();  // Arm selections made
+    private final LongAdder   longSelectNanos = new LongAdder();  // Time spent selecting
+
+
+    /**
+     * Constructs a bandit over the given arms, each starting from a uniform Beta(1, 1) prior
+     * @param strArmNameArr - arm display names
+     * @param dblArmWeightArr - arm weights, each {genre, author, rating, popularity}
+     * @throws IllegalArgumentException if there are no arms or names and weights differ in count
+     */
+    public WeightBandit(String[] strArmNameArr, double[][] dblArmWeightArr)
+    {
+        this(strArmNameArr, dblArmWeightArr, null, null);
+    }
+
+
+    /**
+     * Constructs a bandit over the given arms with per-arm Beta priors
+     * @param strArmNameArr - arm display names
+     * @param dblArmWeightArr - arm weights, each {genre, author, rating, popularity}
+     * @param dblPriorAlphaArr - prior successes per arm (at least 1), or null for 1 each
+     * @param dblPriorBetaArr - prior failures per arm (at least 1), or null for 1 each
+     * @throws IllegalArgumentException if there are no arms, counts differ, or a prior is below 1
+     */
+    public WeightBandit(String[] strArmNameArr, double[][] dblArmWeightArr,
+                        double[] dblPriorAlphaArr, double[] dblPriorBetaArr)
+    {
+        int intArmCount = strArmNameArr.length;
+
+        if (intArmCount == 0 || intArmCount != dblArmWeightArr.length)  // Validate arms
+        {
+            throw new IllegalArgumentException("Each arm needs exactly one name and one weight set");
+        }
+
+        this.strArmNameArr    = strArmNameArr.clone();
+        this.dblArmWeightArr  = dblArmWeightArr.clone();
+        this.dblPriorAlphaArr = validPrior(dblPriorAlphaArr, intArmCount);
+        this.dblPriorBetaArr  = validPrior(dblPriorBetaArr, intArmCount);
+        this.longServedArr    = new LongAdder[intArmCount];
+        this.longRewardArr    = new LongAdder[intArmCount];
+
+        for (int intArm = 0; intArm < intArmCount; intArm++)
+        {
+            longServedArr[intArm] = new LongAdder();
+            longRewardArr[intArm] = new LongAdder();
+        }
+    }
+
+
+    /**
+     * Checks a prior array, defaulting to 1 per arm
+     * The Gamma sampler needs shapes of at least 1
+     */
+    private static double[] validPrior(double[] dblPriorArr, int intArmCount)
+    {
+        if (dblPriorArr == null)  // Uniform prior
+        {
+            double[] dblOneArr = new double[intArmCount];
+            Arrays.fill(dblOneArr, 1.0);
+            return dblOneArr;
+        }
+
+        if (dblPriorArr.length != intArmCount)
+        {
+            throw new IllegalArgumentException("Each arm needs exactly one prior value");
+        }
+
+        for (double dblPrior : dblPriorArr)
+        {
+            if (!(dblPrior >= 1.0))  // Also rejects NaN
+            {
+                throw new IllegalArgumentException("Prior values must be at least 1");
+            }
+        }
+
+        return dblPriorArr.clone();
+    }
+
+
+    /**
+     * Gets the number of arms
+     * @return - the arm count
+     */
+    public int getIntArmCount()
+    {
+        return strArmNameArr.length;
+    }
+
+
+    /**
+     * Gets an arm's weights
+     * @param intArm - the arm
+     * @return - {genre, author, rating, popularity}
+     */
+    public double[] getArmWeights(int intArm)
+    {
+        return dblArmWeightArr[intArm];
+    }
+
+
+    /**
+     * Replaces an arm's weights (used to keep arm 0 in step with manual adjustment)
+     * @param intArm - the arm
+     * @param dblWeightArr - {genre, author, rating, popularity}
+     */
+    public void setArmWeights(int intArm, double[] dblWeightArr)
+    {
+        dblArmWeightArr[intArm] = dblWeightArr.clone();
+    }
+
+
+    /**
+     * Chooses an arm by drawing once from each arm's Beta posterior
+     * @return - the arm with the highest draw
+     */
+    public int selectArm()
+    {
+        long   longStart = System.nanoTime();  // Overhead timer
+        int    intBest   = 0;                  // Arm with the highest draw so far
+        double dblBest   = -1.0;               // Its draw
+
+        for (int intArm = 0; intArm < strArmNameArr.length; intArm++)
+        {
+            double dblServed = longServedArr[intArm].sum();
+            double dblReward = (double) longRewardArr[intArm].sum() / longRewardScale;
+            double dblSample = sampleBeta(dblPriorAlphaArr[intArm] + dblReward,
+                                          dblPriorBetaArr[intArm] + Math.max(0.0, dblServed - dblReward));
+
+            if (dblSample > dblBest)
+            {
+                dblBest = dblSample;
+                intBest = intArm;
+            }
+        }
+
+        longSelectCount.increment();
+        longSelectNanos.add(System.nanoTime() - longStart);
+        return intBest;
+    }
+
+
+    /**
+     * Records that a list produced by an arm was shown to a user
+     * @param intArm - the arm
+     */
+    public void recordServed(int intArm)
+    {
+        longServedArr[intArm].increment();
+    }
+
+
+    /**
+     * Records feedback on a book from a list produced by an arm
+     * @param intArm - the arm
+     * @param dblReward - reward between 0.0 and 1.0
+     */
+    public void recordReward(int intArm, double dblReward)
+    {
+        longRewardArr[intArm].add(Math.round(Math.max(0.0, Math.min(1.0, dblReward)) * longRewardScale));
+    }
+
+
+    /**
+     * Builds a per-arm report of weights, traffic and reward
+     * @return - formatted report including average arm selection overhead
+     */
+    public String getReport()
+    {
+        StringBuilder sbReport = new StringBuilder();  // Report builder
+
+        sbReport.append(String.format("%-12s %-24s %-10s %-12s %-10s\n",
+            "Arm", "Weights(G/A/R/P)", "Served", "Reward", "Mean"));
+
+        for (int intArm = 0; intArm < strArmNameArr.length; intArm++)
+        {
+            double[] dblW       = dblArmWeightArr[intArm];
+            long     longServed = longServedArr[intArm].sum();
+            double   dblReward  = (double) longRewardArr[intArm].sum() / longRewardScale;
+
+            sbReport.append(String.format("%-12s %-24s %-10d %-12.2f %-10.4f\n",
+                strArmNameArr[intArm],
+                String.format("%.2f/%.2f/%.2f/%.2f", dblW[0], dblW[1], dblW[2], dblW[3]),
+                longServed, dblReward, (longServed == 0) ? 0.0 : dblReward / longServed));
+        }
+
+        sbReport.append(String.format("Arm selection overhead: %.2f micros avg over %d selections\n",
+            longSelectNanos.sum() / 1000.0 / Math.max(1L, longSelectCount.sum()), longSelectCount.sum()));
+
+        return sbReport.toString();
+    }
+
+
+    /**
+     * Draws from Beta(a, b) as X / (X + Y) with X ~ Gamma(a), Y ~ Gamma(b)
+     */
+    private static double sampleBeta(double dblA, double dblB)
+    {
+        double dblX = sampleGamma(dblA);
+        double dblY = sampleGamma(dblB);
+        return dblX / (dblX + dblY);
+    }
+
+
+    /**
+     * Draws from Gamma(shape, 1) for shape at least 1 (Marsaglia and Tsang)
+     */
+    private static double sampleGamma(double dblShape)
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double dblD = dblShape - 1.0 / 3.0;
+        double dblC = 1.0 / Math.sqrt(9.0 * dblD);
+
+        while (true)
+        {
+            double dblZ = random.nextGaussian();
+            double dblV = 1.0 + dblC * dblZ;
+
+            if (dblV <= 0.0)  // Outside the transform's support
+            {
+                continue;
+            }
+
+            dblV = dblV * dblV * dblV;
+            double dblU = random.nextDouble();
+
+            if (Math.log(dblU) < 0.5 * dblZ * dblZ + dblD - dblD * dblV + dblD * Math.log(dblV))
+            {
+                return dblD * dblV;
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * File: BorrowLog.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Append-only event log of user borrows, one "user_id,book_id,timestamp"
+ *    line each, with the user ID escaped like users.csv fields
+ *  - Recording a borrow appends one line, independent of the total number of borrows
+ *  - Loading replays the borrows.csv snapshot and then the log, oldest first,
+ *    so borrow history and time-decayed preferences survive a restart
+ *  - Compacts in the background like RatingLog; the snapshot holds the events
+ *    the caller still retains (e.g. each user's most recent borrows)
+ *  - Rotation, compaction and shutdown are shared with RatingLog (CompactingLog)
+**/
+package util;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+
+import model.BorrowEvent;
+
+public class BorrowLog extends CompactingLog<BorrowEvent>
+{
+    /**
+     * Constructs a borrow log over the given snapshot and log files
+     * @param strSnapshotPath - path of the borrows CSV snapshot
+     * @param strLogPath - path of the append-only log
+     */
+    public BorrowLog(String strSnapshotPath, String strLogPath)
+    {
+        super(strSnapshotPath, strLogPath, "user_id,book_id,timestamp", "borrow");
+    }
+
+
+    /**
+     * Loads all borrow events: snapshot first, then any rotated log, then the active log
+     * @return - borrow events in the order they were recorded
+     */
+    public synchronized ArrayList<BorrowEvent> load()
+    {
+        ArrayList<BorrowEvent> eventList = new ArrayList<BorrowEvent>();  // Replayed events
+
+        if (new File(getStrSnapshotPath()).length() > 0)  // Missing or empty snapshot means no borrows yet
+        {
+            eventList.addAll(FileUtils.loadBorrowsFromCSV(getStrSnapshotPath()));
+        }
+
+        replayLogs(eventList.size(), (strLine, longFileMillis) -> replayLine(strLine, eventList));
+
+        return eventList;
+    }
+
+
+    /**
+     * Appends one borrow event to the log
+     * @param event - the borrow to record
+     */
+    public void append(BorrowEvent event)
+    {
+        appendLine(formatRow(event));
+    }
+
+
+    /**
+     * Starts a background compaction of the log into a new snapshot
+     * @param retainedEvents - the events still worth keeping, oldest first; copied
+     */
+    public void compactAsync(Collection<BorrowEvent> retainedEvents)
+    {
+        startCompaction(new ArrayList<BorrowEvent>(retainedEvents));  // Frozen copy (events are immutable)
+    }
+
+
+    /**
+     * Parses one log line into the list, skipping malformed (e.g. partially written) lines
+     * @param strLine - the log line
+     * @param eventList - list receiving the event
+     * @return - true if the line was an event
+     */
+    private static boolean replayLine(String strLine, ArrayList<BorrowEvent> eventList)
+    {
+        BorrowEvent event = FileUtils.parseBorrowFields(strLine.split(",", -1));
+
+        if (event == null)  // Torn or malformed line
+        {
+            return false;
+        }
+
+        eventList.add(event);
+        return true;
+    }
+
+
+    /**
+     * Formats a borrow as one CSV line: user, book, timestamp
+     * @param event - the borrow to format
+     * @return - the line without a line terminator
+     */
+    @Override
+    protected String formatRow(BorrowEvent event)
+    {
+        return FileUtils.escapeField(event.getStrUserId()) + "," + FileUtils.escapeField(event.getStrBookId())
+               + "," + event.getLongTimestamp();
+    }
+}
@@ -0,0 +1,345 @@
+/**
+ * File: CompactingLog.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Shared machinery for an append-only event log over a CSV snapshot
+ *    (RatingLog, UserLog): appending lines, the compaction threshold,
+ *    rotation, background snapshot writing and shutdown
+ *  - Compaction rotates the active log aside, writes the caller's frozen
+ *    state to a temporary snapshot that atomically replaces the old one, and
+ *    then deletes the rotated log
+ *  - A rotated log left by an interrupted or failed compaction is never
+ *    overwritten: the active log is appended to it, so its events stay on
+ *    disk until a snapshot containing them has been written
+ *  - Subclasses supply loading, event formats and row formatting
+**/
+package util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+abstract class CompactingLog<T>
+{
+    private static final int intMinCompactEntries = 1000;  // Never compact smaller logs
+
+    private final String strSnapshotPath;    // Compacted snapshot CSV
+    private final String strLogPath;         // Active append-only log
+    private final String strRotatedLogPath;  // Log being folded into the snapshot
+    private final String strHeader;          // Snapshot header row
+    private final String strName;            // What the log records, for messages (e.g. "rating")
+
+    private PrintWriter pwLog;          // Open appender for the active log
+    private int  intLogEntryCount  = 0; // Entries in the active log
+    private int  intSnapshotCount  = 0; // Rows in the last snapshot
+    private volatile boolean isCompacting = false;  // A background compaction is running
+
+    private final ExecutorService compactionExecutor;  // Writes snapshots off the caller's thread
+
+
+    /**
+     * Constructs a log over the given snapshot and log files
+     * @param strSnapshotPath - path of the CSV snapshot
+     * @param strLogPath - path of the append-only log
+     * @param strHeader - header row written at the top of each snapshot
+     * @param strName - what the log records, used in messages and the thread name
+     */
+    protected CompactingLog(String strSnapshotPath, String strLogPath, String strHeader, String strName)
+    {
+        this.strSnapshotPath   = strSnapshotPath;
+        this.strLogPath        = strLogPath;
+        this.strRotatedLogPath = strLogPath + ".compacting";
+        this.strHeader         = strHeader;
+        this.strName           = strName;
+
+        this.compactionExecutor = Executors.newSingleThreadExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, strName + "-log-compaction");
+            thread.setDaemon(true);  // Never keep the application alive
+            return thread;
+        });
+    }
+
+
+    /**
+     * Formats one snapshot row
+     * @param row - the frozen row
+     * @return - the CSV line without a line terminator
+     */
+    protected abstract String formatRow(T row);
+
+
+    /**
+     * Gets the snapshot path
+     * @return - path of the CSV snapshot
+     */
+    protected String getStrSnapshotPath()
+    {
+        return strSnapshotPath;
+    }
+
+
+    /**
+     * Replays the rotated log, then the active log, recording the counts that drive compaction
+     * Callers hold the lock and have already read the snapshot
+     * @param intSnapshotCount - rows read from the snapshot
+     * @param lineHandler - applies one line; returns false for torn or malformed lines
+     */
+    protected void replayLogs(int intSnapshotCount, LineHandler lineHandler)
+    {
+        this.intSnapshotCount = intSnapshotCount;
+        replay(strRotatedLogPath, lineHandler);  // Left over from an interrupted compaction
+        intLogEntryCount = replay(strLogPath, lineHandler);
+    }
+
+
+    /**
+     * Appends one event line to the log
+     * @param strLine - the event line without a line terminator
+     */
+    protected synchronized void appendLine(String strLine)
+    {
+        try
+        {
+            if (pwLog == null)  // Open lazily in append mode
+            {
+                pwLog = new PrintWriter(new FileWriter(strLogPath, true));
+            }
+
+            pwLog.println(strLine);
+            pwLog.flush();
+            intLogEntryCount++;
+        }
+        catch (IOException e)  // Write failure
+        {
+            System.out.println("Failed to record " + strName + " change. Please check file permissions.");
+        }
+    }
+
+
+    /**
+     * Checks whether the log has grown enough to be worth compacting
+     * The threshold grows with the snapshot so compaction cost stays amortized O(1) per event
+     * @return - true if a compaction should be started
+     */
+    public synchronized boolean needsCompaction()
+    {
+        return !isCompacting && intLogEntryCount >= Math.max(intMinCompactEntries, intSnapshotCount);
+    }
+
+
+    /**
+     * Checks whether a background compaction is running
+     * @return - true until the running compaction finishes
+     */
+    protected boolean isCompactionRunning()
+    {
+        return isCompacting;
+    }
+
+
+    /**
+     * Rotates the log and writes the given state as the new snapshot in the background
+     * @param frozenList - the current state, already detached from anything callers may change
+     */
+    protected synchronized void startCompaction(ArrayList<T> frozenList)
+    {
+        if (isCompacting)  // Only one compaction at a time
+        {
+            return;
+        }
+
+        if (pwLog != null)  // Close the active log before rotating it
+        {
+            pwLog.close();
+            pwLog = null;
+        }
+
+        try
+        {
+            rotateLog();
+        }
+        catch (IOException e)  // Nothing rotated; keep appending to the same log
+        {
+            System.out.println("Failed to rotate the " + strName + " log. Compaction skipped.");
+            return;
+        }
+
+        isCompacting     = true;
+        intLogEntryCount = 0;
+
+        compactionExecutor.submit(() ->
+        {
+            try
+            {
+                writeSnapshot(frozenList);
+                Files.deleteIfExists(Paths.get(strRotatedLogPath));  // Now folded into the snapshot
+
+                synchronized (this)
+                {
+                    intSnapshotCount = frozenList.size();
+                }
+            }
+            catch (IOException e)  // Rotated log stays and is replayed on next load
+            {
+                System.out.println("Failed to compact " + strName + "s. Please check file permissions.");
+            }
+            finally
+            {
+                isCompacting = false;
+            }
+        });
+    }
+
+
+    /**
+     * Waits for any running compaction and closes the log
+     */
+    public void close()
+    {
+        compactionExecutor.shutdown();
+
+        try
+        {
+            compactionExecutor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        catch (InterruptedException e)  // Keep the interrupt visible to the caller
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (this)
+        {
+            if (pwLog != null)
+            {
+                pwLog.close();
+                pwLog = null;
+            }
+        }
+    }
+
+
+    /**
+     * Moves the active log aside, or appends it to a rotated log that is still waiting to be folded in
+     * A crash between the append and the delete only replays the same events twice, which is harmless
+     * @throws IOException if the log cannot be moved or appended
+     */
+    private void rotateLog() throws IOException
+    {
+        Path pathLog     = Paths.get(strLogPath);
+        Path pathRotated = Paths.get(strRotatedLogPath);
+
+        if (!Files.exists(pathRotated))  // Usual case: plain rename
+        {
+            Files.move(pathLog, pathRotated);
+            return;
+        }
+
+        if (Files.exists(pathLog))  // Keep the older events first so replay order is preserved
+        {
+            try (OutputStream out = Files.newOutputStream(pathRotated, StandardOpenOption.APPEND))
+            {
+                Files.copy(pathLog, out);
+            }
+
+            Files.delete(pathLog);
+        }
+    }
+
+
+    /**
+     * Writes a snapshot to a temporary file and atomically swaps it in
+     * @param frozenList - the rows to write
+     * @throws IOException if writing or replacing the snapshot fails
+     */
+    private void writeSnapshot(ArrayList<T> frozenList) throws IOException
+    {
+        Path pathTemp = Paths.get(strSnapshotPath + ".tmp");
+
+        try (PrintWriter pw = new PrintWriter(new FileWriter(pathTemp.toFile())))  // File writer
+        {
+            pw.println(strHeader);
+
+            for (T row : frozenList)  // Write rows
+            {
+                pw.println(formatRow(row));
+            }
+
+            if (pw.checkError())  // PrintWriter swallows write errors
+            {
+                throw new IOException("Snapshot write failed");
+            }
+        }
+
+        Files.move(pathTemp, Paths.get(strSnapshotPath),
+                   StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+
+    /**
+     * Replays one log file line by line
+     * @param strPath - the log file to read
+     * @param lineHandler - applies one line; returns false for torn or malformed lines
+     * @return - number of events applied
+     */
+    private int replay(String strPath, LineHandler lineHandler)
+    {
+        File fileLog = new File(strPath);
+
+        if (!fileLog.exists())  // Nothing to replay
+        {
+            return 0;
+        }
+
+        int  intCount     = 0;                       // Events applied
+        long longFileTime = fileLog.lastModified();  // Stands in for missing event timestamps
+
+        try (BufferedReader br = new BufferedReader(new FileReader(fileLog)))  // File reader
+        {
+            String strLine = null;
+
+            while ((strLine = br.readLine()) != null)  // Read events
+            {
+                if (lineHandler.apply(strLine, longFileTime))
+                {
+                    intCount++;
+                }
+            }
+        }
+        catch (IOException e)  // Loading failure
+        {
+            System.out.println("Failed to replay the " + strName + " log. Please check the file.");
+        }
+
+        return intCount;
+    }
+
+
+    /**
+     * Applies one replayed log line
+     */
+    protected interface LineHandler
+    {
+        /**
+         * @param strLine - the log line
+         * @param longFileMillis - modification time of the file being replayed
+         * @return - true if the line was an event; false for torn or malformed lines
+         */
+        boolean apply(String strLine, long longFileMillis);
+    }
+}
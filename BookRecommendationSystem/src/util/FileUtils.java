@@ -7,7 +7,11 @@
  *  - Manages CSV file paths for books, users and ratings
  *  - Validates CSV format and creates timestamped backups
  *  - Loads Book, User, and Rating data from CSV into ArrayList
+ *  - Percent-escapes free-text user fields and rating/borrow IDs so commas and
+ *    line breaks survive a round trip
  *  - Saves Book, User, and Rating lists back to CSV (books include backup)
+ *  - Loads borrow events for the borrow log snapshot
+ *  - Provides paths for the rating, user and borrow logs, trained model and precomputed recommendation files
  * 
  * Work Log (Lucas Wu):
  *  2025-08-18:
@@ -41,9 +45,12 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.Locale;
 
 import model.Book;
+import model.BorrowEvent;
 import model.Rating;
 import model.User;
 
@@ -81,6 +88,66 @@ public class FileUtils
     }
 
 
+    /**
+     * Gets the append-only rating log file path
+     * @return - the path to ratings.log
+     */
+    public static String getRatingLogFilePath()
+    {
+        return strBaseDir + "ratings.log";
+    }
+
+
+    /**
+     * Gets the append-only user log file path
+     * @return - the path to users.log
+     */
+    public static String getUserLogFilePath()
+    {
+        return strBaseDir + "users.log";
+    }
+
+
+    /**
+     * Gets the borrows.csv snapshot file path
+     * @return - the path to borrows.csv
+     */
+    public static String getBorrowFilePath()
+    {
+        return strBaseDir + "borrows.csv";
+    }
+
+
+    /**
+     * Gets the append-only borrow log file path
+     * @return - the path to borrows.log
+     */
+    public static String getBorrowLogFilePath()
+    {
+        return strBaseDir + "borrows.log";
+    }
+
+
+    /**
+     * Gets the precomputed recommendation lookup file path
+     * @return - the path to recommendations.bin
+     */
+    public static String getPrecomputedRecommendationFilePath()
+    {
+        return strBaseDir + "recommendations.bin";
+    }
+
+
+    /**
+     * Gets the trained matrix factorization model file path
+     * @return - the path to factor_model.bin
+     */
+    public static String getFactorModelFilePath()
+    {
+        return strBaseDir + "factor_model.bin";
+    }
+
+
     /**
      * Loads books from the default CSV
      * @return - ArrayList<Book> loaded books
@@ -189,6 +256,19 @@ public class FileUtils
      * @throws IOException if file read fails
      */
     public static boolean validateCSVFile(String strPath, int intExpectedCols)
+    {
+        return validateCSVFile(strPath, intExpectedCols, intExpectedCols);
+    }
+
+
+    /**
+     * Validates that every row of a CSV file has a column count within a range
+     * @param strPath - path to the CSV file
+     * @param intMinCols - fewest columns allowed per row
+     * @param intMaxCols - most columns allowed per row
+     * @return - true if format is valid; false otherwise
+     */
+    public static boolean validateCSVFile(String strPath, int intMinCols, int intMaxCols)
     {
         try (BufferedReader br = new BufferedReader(new FileReader(strPath)))  // File reader
         {
@@ -200,7 +280,7 @@ public class FileUtils
                 intRow++;  
                 String[] strColsArr = strLine.split(",");  // Split columns
 
-                if (strColsArr.length != intExpectedCols)  // Column count mismatch
+                if (strColsArr.length < intMinCols || strColsArr.length > intMaxCols)  // Column count mismatch
                 {
                     System.out.println("Format error at line " + intRow + ".");
                     return false;
@@ -273,44 +353,39 @@ public class FileUtils
 
 
     /**
-     * Internal: loads users from specified CSV path
+     * Loads users from a specified CSV path (also used for user snapshots)
      * @param strPath - CSV file path for users
      * @return - ArrayList<User> loaded users; empty list if failure
      */
-    private static ArrayList<User> loadUsersFromCSV(String strPath)
+    public static ArrayList<User> loadUsersFromCSV(String strPath)
     {
         ArrayList<User> userList = new ArrayList<User>();  // Result list
 
-        if (!validateCSVFile(strPath, 5))  // Verify format
-        {
-            System.out.println("The user CSV format is incorrect.");
-            return userList;
-        }
-
         try (BufferedReader br = new BufferedReader(new FileReader(strPath)))  // File reader
         {
             String  strLine      = null;
             boolean isFirstLine  = true;  // Skip header flag
+            int     intRow       = 0;     // Line counter
 
             while ((strLine = br.readLine()) != null)  // Read rows
             {
+                intRow++;
+
                 if (isFirstLine)  // Skip header row
                 {
                     isFirstLine = false;
                     continue;
                 }
 
-                String[] strFieldArr = strLine.split(",");  // Parse fields
+                String[] strFieldArr = strLine.split(",", -1);  // Keep empty trailing fields (empty answer or preferences)
 
-                User user = new User(
-                    strFieldArr[0],
-                    strFieldArr[1],
-                    strFieldArr[2],
-                    strFieldArr[3]
-                );  // Construct User
+                if (strFieldArr.length < 4)  // Checked per row so one bad line cannot discard every user
+                {
+                    System.out.println("Skipped malformed user row at line " + intRow + ".");
+                    continue;
+                }
 
-                user.setStrPreferences(strFieldArr[4]);  // Restore preferences
-                userList.add(user);
+                userList.add(parseUserFields(strFieldArr, 0));
             }
         }
         catch (IOException e)  // Loading failure
@@ -323,40 +398,137 @@ public class FileUtils
 
 
     /**
-     * Internal: loads ratings from specified CSV path
+     * Builds a user from the fields of a users.csv row or registration event
+     * Rows written before fields were escaped can hold extra commas; those are
+     * recovered by keeping the username, password, answer and preferences in
+     * place and joining everything between them back into the security question
+     * @param strFieldArr - the split fields
+     * @param intOffset - index of the username field
+     * @return - the user; at least four fields must follow the offset
+     */
+    static User parseUserFields(String[] strFieldArr, int intOffset)
+    {
+        int    intLast        = strFieldArr.length - 1;
+        String strPreferences = (strFieldArr.length > intOffset + 4) ? strFieldArr[intLast] : "";
+        int    intAnswer      = (strFieldArr.length > intOffset + 4) ? intLast - 1 : intLast;
+        String strQuestion    = strFieldArr[intOffset + 2];
+
+        if (intAnswer > intOffset + 3)  // Legacy row with unescaped commas in the question
+        {
+            strQuestion = String.join(",", Arrays.copyOfRange(strFieldArr, intOffset + 2, intAnswer));
+            System.out.println("Recovered user '" + strFieldArr[intOffset] + "' from a row with extra commas.");
+        }
+
+        User user = new User(
+            unescapeField(strFieldArr[intOffset]),
+            unescapeField(strFieldArr[intOffset + 1]),
+            unescapeField(strQuestion),
+            unescapeField(strFieldArr[intAnswer])
+        );  // Construct User
+
+        user.setStrPreferences(unescapeField(strPreferences));  // Restore preferences
+        return user;
+    }
+
+
+    /**
+     * Escapes a free-text field so it can be stored in one CSV column
+     * Percent-encodes '%', ',', carriage return and line feed
+     * @param strField - the raw field
+     * @return - the escaped field
+     */
+    public static String escapeField(String strField)
+    {
+        StringBuilder sb = new StringBuilder(strField.length());
+
+        for (int intI = 0; intI < strField.length(); intI++)
+        {
+            char chr = strField.charAt(intI);
+
+            switch (chr)
+            {
+                case '%':  sb.append("%25"); break;
+                case ',':  sb.append("%2C"); break;
+                case '\r': sb.append("%0D"); break;
+                case '\n': sb.append("%0A"); break;
+                default:   sb.append(chr);
+            }
+        }
+
+        return sb.toString();
+    }
+
+
+    /**
+     * Reverses escapeField; any other '%' sequence is kept as written
+     * @param strField - the escaped field
+     * @return - the raw field
+     */
+    public static String unescapeField(String strField)
+    {
+        if (strField.indexOf('%') < 0)  // Nothing escaped
+        {
+            return strField;
+        }
+
+        StringBuilder sb = new StringBuilder(strField.length());
+
+        for (int intI = 0; intI < strField.length(); intI++)
+        {
+            char   chr     = strField.charAt(intI);
+            String strCode = (chr == '%' && intI + 3 <= strField.length())
+                             ? strField.substring(intI + 1, intI + 3).toUpperCase(Locale.ROOT) : "";
+
+            switch (strCode)
+            {
+                case "25": sb.append('%');  intI += 2; break;
+                case "2C": sb.append(',');  intI += 2; break;
+                case "0D": sb.append('\r'); intI += 2; break;
+                case "0A": sb.append('\n'); intI += 2; break;
+                default:   sb.append(chr);
+            }
+        }
+
+        return sb.toString();
+    }
+
+
+    /**
+     * Loads ratings from a specified CSV path (also used for rating snapshots)
      * @param strPath - CSV file path for ratings
      * @return - ArrayList<Rating> loaded ratings; empty list if failure
      */
-    private static ArrayList<Rating> loadRatingsFromCSV(String strPath)
+    public static ArrayList<Rating> loadRatingsFromCSV(String strPath)
     {
         ArrayList<Rating> ratingList = new ArrayList<Rating>();  // Result list
 
-        if (!validateCSVFile(strPath, 3))  // Verify format
-        {
-            System.out.println("The rating CSV format is incorrect.");
-            return ratingList;
-        }
+        long longFileTime = new File(strPath).lastModified();  // Stands in for missing timestamps
 
         try (BufferedReader br = new BufferedReader(new FileReader(strPath)))  // File reader
         {
             String  strLine      = null;
             boolean isFirstLine  = true;  // Skip header flag
+            int     intRow       = 0;     // Line counter
 
             while ((strLine = br.readLine()) != null)  // Read rows
             {
+                intRow++;
+
                 if (isFirstLine)  // Skip header row
                 {
                     isFirstLine = false;
                     continue;
                 }
 
-                String[] strFieldArr = strLine.split(",");  // Parse fields
+                Rating rating = parseRatingFields(strLine.split(",", -1), longFileTime);
 
-                ratingList.add(new Rating(
-                    strFieldArr[0],
-                    strFieldArr[1],
-                    Integer.parseInt(strFieldArr[2])
-                ));
+                if (rating == null)  // Checked per row so one bad line cannot discard every rating
+                {
+                    System.out.println("Skipped malformed rating row at line " + intRow + ".");
+                    continue;
+                }
+
+                ratingList.add(rating);
             }
         }
         catch (IOException e)  // Loading failure
@@ -368,6 +540,117 @@ public class FileUtils
     }
 
 
+    /**
+     * Builds a rating from the fields of a ratings.csv row or rating log line
+     * @param strFieldArr - the split fields: escaped user ID, escaped book ID, score and optional timestamp
+     * @param longDefaultTime - stands in for a missing timestamp
+     * @return - the rating, or null if the fields are malformed or the score is out of range
+     */
+    public static Rating parseRatingFields(String[] strFieldArr, long longDefaultTime)
+    {
+        if (strFieldArr.length < 3 || strFieldArr.length > 4)  // Torn or malformed row
+        {
+            return null;
+        }
+
+        try
+        {
+            long longTimestamp = (strFieldArr.length == 4) ? Long.parseLong(strFieldArr[3]) : longDefaultTime;
+            return new Rating(unescapeField(strFieldArr[0]), unescapeField(strFieldArr[1]),
+                              Integer.parseInt(strFieldArr[2]), longTimestamp);
+        }
+        catch (IllegalArgumentException e)  // Bad number or out-of-range rating
+        {
+            return null;
+        }
+    }
+
+
+    /**
+     * Formats a rating as one ratings.csv row, escaping the IDs
+     * @param rating - the rating to format
+     * @return - the row without a line terminator
+     */
+    public static String formatRatingRow(Rating rating)
+    {
+        return String.join(",",
+            escapeField(rating.getStrUserId()),
+            escapeField(rating.getStrBookId()),
+            String.valueOf(rating.getIntRating()),
+            String.valueOf(rating.getLongTimestamp())
+        );
+    }
+
+
+    /**
+     * Loads borrow events from a specified CSV path (used for borrow snapshots)
+     * @param strPath - CSV file path for borrows
+     * @return - ArrayList<BorrowEvent> loaded events; empty list if failure
+     */
+    public static ArrayList<BorrowEvent> loadBorrowsFromCSV(String strPath)
+    {
+        ArrayList<BorrowEvent> eventList = new ArrayList<BorrowEvent>();  // Result list
+
+        try (BufferedReader br = new BufferedReader(new FileReader(strPath)))  // File reader
+        {
+            String  strLine      = null;
+            boolean isFirstLine  = true;  // Skip header flag
+            int     intRow       = 0;     // Line counter
+
+            while ((strLine = br.readLine()) != null)  // Read rows
+            {
+                intRow++;
+
+                if (isFirstLine)  // Skip header row
+                {
+                    isFirstLine = false;
+                    continue;
+                }
+
+                BorrowEvent event = parseBorrowFields(strLine.split(",", -1));
+
+                if (event == null)  // Checked per row so one bad line cannot discard every borrow
+                {
+                    System.out.println("Skipped malformed borrow row at line " + intRow + ".");
+                    continue;
+                }
+
+                eventList.add(event);
+            }
+        }
+        catch (IOException e)  // Loading failure
+        {
+            System.out.println("Failed to load borrows. Please check the file.");
+        }
+
+        return eventList;  // Return result
+    }
+
+
+    /**
+     * Builds a borrow event from the fields of a borrows.csv row or log line
+     * @param strFieldArr - the split fields: escaped user ID, escaped book ID, timestamp
+     * @return - the event, or null if the fields are malformed
+     */
+    static BorrowEvent parseBorrowFields(String[] strFieldArr)
+    {
+        if (strFieldArr.length != 3)  // Torn or malformed row
+        {
+            return null;
+        }
+
+        try
+        {
+            return new BorrowEvent(unescapeField(strFieldArr[0]), unescapeField(strFieldArr[1]),
+                                   Long.parseLong(strFieldArr[2]));
+        }
+        catch (NumberFormatException e)  // Bad timestamp
+        {
+            return null;
+        }
+    }
+
+
     /**
      * Internal: saves books list to a specified CSV path
      * @param bookList - the list of Book objects
@@ -401,6 +684,23 @@ public class FileUtils
     }
 
 
+    /**
+     * Formats a user as one users.csv row, escaping each field
+     * @param user - the user to format
+     * @return - the row without a line terminator
+     */
+    public static String formatUserRow(User user)
+    {
+        return String.join(",",
+            escapeField(user.getStrUsername()),
+            escapeField(user.getStrPassword()),
+            escapeField(user.getStrSecurityQ()),
+            escapeField(user.getStrSecurityA()),
+            escapeField(user.getStrPreferences())
+        );
+    }
+
+
     /**
      * Internal: saves users list to a specified CSV path
      * @param userList - the list of User objects
@@ -414,13 +714,7 @@ public class FileUtils
 
             for (User user : userList)  // Write rows
             {
-                pw.println(String.join(",",
-                    user.getStrUsername(),
-                    user.getStrPassword(),
-                    user.getStrSecurityQ(),
-                    user.getStrSecurityA(),
-                    user.getStrPreferences()
-                ));
+                pw.println(formatUserRow(user));
             }
         }
         catch (IOException e)  // Write failure
@@ -440,15 +734,11 @@ public class FileUtils
     {
         try (PrintWriter pw = new PrintWriter(new FileWriter(strPath)))  // File writer
         {
-            pw.println("user_id,book_id,rating");  // Header
+            pw.println("user_id,book_id,rating,timestamp");  // Header
 
             for (Rating rating : ratingList)  // Write rows
             {
-                pw.println(String.join(",",
-                    rating.getStrUserId(),
-                    rating.getStrBookId(),
-                    String.valueOf(rating.getIntRating())
-                ));
+                pw.println(formatRatingRow(rating));
             }
         }
         catch (IOException e)  // Write failure
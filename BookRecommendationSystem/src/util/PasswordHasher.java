@@ -0,0 +1,158 @@
+/**
+ * File: PasswordHasher.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Hashes passwords with salted PBKDF2 (HMAC-SHA256) at a configurable cost
+ *  - Stores hashes as "pbkdf2-sha256$iterations$salt$hash" (Base64 fields, no
+ *    commas) so they fit in users.csv and the user log unchanged
+ *  - Verifies against either a stored hash or a legacy plain-text password,
+ *    so existing accounts keep working until they are migrated on login
+ *  - Compares in constant time
+**/
+package util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.security.spec.KeySpec;
+import java.util.Base64;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+public class PasswordHasher
+{
+    public static final int intDefaultIterations = 100000;  // Default cost factor
+
+    private static final String strAlgorithm = "PBKDF2WithHmacSHA256";  // JCA algorithm name
+    private static final String strPrefix    = "pbkdf2-sha256";         // Stored hash marker
+    private static final int    intSaltBytes = 16;                      // Random salt length
+    private static final int    intHashBits  = 256;                     // Derived key length
+
+    private static final SecureRandom secureRandom = new SecureRandom();  // Salt source
+
+
+    /**
+     * Hashes a password with a fresh random salt
+     * @param strPassword - the plain-text password
+     * @param intIterations - PBKDF2 iteration count (cost factor)
+     * @return - the encoded hash
+     * @throws IllegalArgumentException if the iteration count is less than 1
+     */
+    public static String hash(String strPassword, int intIterations)
+    {
+        if (intIterations < 1)  // Validate cost
+        {
+            throw new IllegalArgumentException("Iteration count must be at least 1");
+        }
+
+        byte[] byteSaltArr = new byte[intSaltBytes];
+        secureRandom.nextBytes(byteSaltArr);
+
+        byte[] byteHashArr = derive(strPassword, byteSaltArr, intIterations, intHashBits);
+
+        return strPrefix + "$" + intIterations
+               + "$" + Base64.getEncoder().encodeToString(byteSaltArr)
+               + "$" + Base64.getEncoder().encodeToString(byteHashArr);
+    }
+
+
+    /**
+     * Checks a password against a stored hash or legacy plain-text password
+     * @param strPassword - the password being tried
+     * @param strStored - the stored hash, or a plain-text password from before hashing
+     * @return - true if the password matches
+     */
+    public static boolean verify(String strPassword, String strStored)
+    {
+        if (strPassword == null || strStored == null)  // Nothing to compare
+        {
+            return false;
+        }
+
+        if (!isHashed(strStored))  // Legacy plain-text password
+        {
+            return MessageDigest.isEqual(strPassword.getBytes(StandardCharsets.UTF_8),
+                                         strStored.getBytes(StandardCharsets.UTF_8));
+        }
+
+        String[] strPartArr = strStored.split("\\$");
+
+        if (strPartArr.length != 4)  // Corrupt hash never matches
+        {
+            return false;
+        }
+
+        try
+        {
+            int    intIterations = Integer.parseInt(strPartArr[1]);
+            byte[] byteSaltArr   = Base64.getDecoder().decode(strPartArr[2]);
+            byte[] byteHashArr   = Base64.getDecoder().decode(strPartArr[3]);
+
+            return MessageDigest.isEqual(byteHashArr,
+                derive(strPassword, byteSaltArr, intIterations, byteHashArr.length * 8));
+        }
+        catch (IllegalArgumentException e)  // Bad number or Base64
+        {
+            return false;
+        }
+    }
+
+
+    /**
+     * Checks whether a stored password is a hash produced by this class
+     * @param strStored - the stored password field
+     * @return - true if it is a PBKDF2 hash; false for legacy plain text
+     */
+    public static boolean isHashed(String strStored)
+    {
+        return strStored != null && strStored.startsWith(strPrefix + "$");
+    }
+
+
+    /**
+     * Checks whether a stored password should be replaced after a successful login
+     * @param strStored - the stored password field
+     * @param intIterations - the current cost factor
+     * @return - true if it is plain text or was hashed at a lower cost
+     */
+    public static boolean needsRehash(String strStored, int intIterations)
+    {
+        if (!isHashed(strStored))  // Plain text: always migrate
+        {
+            return true;
+        }
+
+        String[] strPartArr = strStored.split("\\$");
+
+        try
+        {
+            return strPartArr.length != 4 || Integer.parseInt(strPartArr[1]) < intIterations;
+        }
+        catch (NumberFormatException e)  // Corrupt cost field
+        {
+            return true;
+        }
+    }
+
+
+    /**
+     * Runs PBKDF2 over a password and salt
+     */
+    private static byte[] derive(String strPassword, byte[] byteSaltArr, int intIterations, int intBits)
+    {
+        KeySpec keySpec = new PBEKeySpec(strPassword.toCharArray(), byteSaltArr, intIterations, intBits);
+
+        try
+        {
+            return SecretKeyFactory.getInstance(strAlgorithm).generateSecret(keySpec).getEncoded();
+        }
+        catch (GeneralSecurityException e)  // Every Java 8+ runtime ships this algorithm
+        {
+            throw new IllegalStateException("PBKDF2 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * File: RatingLog.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Append-only event log of rating upserts, one "user_id,book_id,rating,timestamp" line each
+ *    with IDs escaped like users.csv fields (lines without a timestamp from
+ *    older logs are still accepted)
+ *  - Recording a rating appends one line, independent of the total number of ratings
+ *  - Loading replays the snapshot CSV and then the log; later entries for the
+ *    same (user, book) win
+ *  - Compacts in the background: the log is rotated aside, the caller's current
+ *    ratings are written to a temporary snapshot that atomically replaces
+ *    ratings.csv, and the rotated log is then deleted
+ *  - A crash at any point is recoverable because replaying a rotated log over
+ *    either the old or the new snapshot yields the same state
+ *  - Rotation, compaction and shutdown are shared with UserLog (CompactingLog)
+**/
+package util;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+
+import model.Rating;
+
+public class RatingLog extends CompactingLog<Rating>
+{
+    /**
+     * Constructs a rating log over the given snapshot and log files
+     * @param strSnapshotPath - path of the ratings CSV snapshot
+     * @param strLogPath - path of the append-only log
+     */
+    public RatingLog(String strSnapshotPath, String strLogPath)
+    {
+        super(strSnapshotPath, strLogPath, "user_id,book_id,rating,timestamp", "rating");
+    }
+
+
+    /**
+     * Loads all rating events: snapshot first, then any rotated log, then the active log
+     * Callers apply them in order with last-write-wins semantics
+     * @return - rating events in the order they were recorded
+     */
+    public synchronized ArrayList<Rating> load()
+    {
+        ArrayList<Rating> ratingList = new ArrayList<Rating>();  // Replayed events
+
+        if (new File(getStrSnapshotPath()).length() > 0)  // Empty snapshot means no ratings yet
+        {
+            ratingList.addAll(FileUtils.loadRatingsFromCSV(getStrSnapshotPath()));
+        }
+
+        replayLogs(ratingList.size(), (strLine, longFileMillis) -> replayLine(strLine, longFileMillis, ratingList));
+
+        return ratingList;
+    }
+
+
+    /**
+     * Appends one rating event to the log
+     * @param rating - the rating to record
+     */
+    public void append(Rating rating)
+    {
+        appendLine(formatRow(rating));
+    }
+
+
+    /**
+     * Starts a background compaction of the log into a new snapshot
+     * @param currentRatings - the current rating state (one rating per user/book); copied
+     */
+    public void compactAsync(Collection<Rating> currentRatings)
+    {
+        startCompaction(new ArrayList<Rating>(currentRatings));  // Frozen copy (ratings are immutable)
+    }
+
+
+    /**
+     * Parses one log line into the list, skipping malformed (e.g. partially written) lines
+     * @param strLine - the log line
+     * @param longFileMillis - stands in for a missing timestamp
+     * @param ratingList - list receiving the event
+     * @return - true if the line was an event
+     */
+    private static boolean replayLine(String strLine, long longFileMillis, ArrayList<Rating> ratingList)
+    {
+        String[] strFieldArr = strLine.split(",", -1);
+
+        if (strFieldArr.length < 3 || strFieldArr.length > 4)  // Torn or malformed line
+        {
+            return false;
+        }
+
+        Rating rating = FileUtils.parseRatingFields(strFieldArr, longFileMillis);
+
+        if (rating == null)  // Bad number or out-of-range rating
+        {
+            System.out.println("Skipped invalid rating log entry: " + strLine);
+            return false;
+        }
+
+        ratingList.add(rating);
+        return true;
+    }
+
+
+    /**
+     * Formats a rating as one CSV line: escaped user, escaped book, score, timestamp
+     * @param rating - the rating to format
+     * @return - the line without a line terminator
+     */
+    @Override
+    protected String formatRow(Rating rating)
+    {
+        return FileUtils.formatRatingRow(rating);
+    }
+}
@@ -0,0 +1,166 @@
+/**
+ * File: UserLog.java
+ * Author: Lucas Wu
+ * Date: 2026-10-18
+ *
+ * Description:
+ *  - Append-only event log of user mutations, one CSV line each, with fields
+ *    escaped like users.csv rows (FileUtils.escapeField):
+ *      "R,username,password,securityQ,securityA,preferences" for a registration
+ *      "P,username,password" for a password change
+ *  - Registering a user or changing a password appends one line, independent
+ *    of the total number of users
+ *  - Loading reads the users.csv snapshot and then replays the log over it
+ *  - Compacts in the background like RatingLog: the log is rotated aside, the
+ *    caller's current users are written to a temporary snapshot that atomically
+ *    replaces users.csv, and the rotated log is then deleted
+ *  - A crash at any point is recoverable because replaying a rotated log over
+ *    either the old or the new snapshot yields the same state
+ *  - Rotation, compaction and shutdown are shared with RatingLog (CompactingLog)
+**/
+package util;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import model.User;
+
+public class UserLog extends CompactingLog<String>
+{
+    private static final String strRegisterTag = "R";  // Registration event
+    private static final String strPasswordTag = "P";  // Password change event
+
+
+    /**
+     * Constructs a user log over the given snapshot and log files
+     * @param strSnapshotPath - path of the users CSV snapshot
+     * @param strLogPath - path of the append-only log
+     */
+    public UserLog(String strSnapshotPath, String strLogPath)
+    {
+        super(strSnapshotPath, strLogPath, "username,password,securityQ,securityA,preferences", "user");
+    }
+
+
+    /**
+     * Loads all users: the snapshot, then any rotated log, then the active log
+     * @return - users in registration order, with every later password change applied
+     */
+    public synchronized ArrayList<User> load()
+    {
+        ArrayList<User> userList = new ArrayList<User>();  // Current users
+
+        if (new File(getStrSnapshotPath()).length() > 0)  // Empty snapshot means no users yet
+        {
+            userList.addAll(FileUtils.loadUsersFromCSV(getStrSnapshotPath()));
+        }
+
+        Map<String, User> mapUserByName = new HashMap<String, User>(userList.size() * 2);  // Exact username → user
+
+        for (User user : userList)
+        {
+            mapUserByName.putIfAbsent(user.getStrUsername(), user);
+        }
+
+        replayLogs(userList.size(), (strLine, longFileMillis) -> replayLine(strLine, userList, mapUserByName));
+
+        return userList;
+    }
+
+
+    /**
+     * Appends a registration event to the log
+     * @param user - the newly registered user
+     */
+    public void appendRegistration(User user)
+    {
+        appendLine(strRegisterTag + "," + FileUtils.formatUserRow(user));
+    }
+
+
+    /**
+     * Appends a password change event to the log
+     * @param user - the user whose password changed (already updated)
+     */
+    public void appendPasswordChange(User user)
+    {
+        appendLine(String.join(",", strPasswordTag, FileUtils.escapeField(user.getStrUsername()),
+                               FileUtils.escapeField(user.getStrPassword())));
+    }
+
+
+    /**
+     * Starts a background compaction of the log into a new snapshot
+     * @param currentUsers - the current users; their rows are captured before this method returns
+     */
+    public synchronized void compactAsync(Collection<User> currentUsers)
+    {
+        if (isCompactionRunning())  // Only one compaction at a time
+        {
+            return;
+        }
+
+        ArrayList<String> strRowList = new ArrayList<String>(currentUsers.size());  // Frozen rows (users are mutable)
+
+        for (User user : currentUsers)
+        {
+            strRowList.add(FileUtils.formatUserRow(user));
+        }
+
+        startCompaction(strRowList);
+    }
+
+
+    /**
+     * Applies one log line to the user list, skipping malformed (e.g. partially written) lines
+     * @param strLine - the log line
+     * @param userList - list receiving registered users
+     * @param mapUserByName - exact username → user, kept in step with the list
+     * @return - true if the line was an event
+     */
+    private static boolean replayLine(String strLine, ArrayList<User> userList, Map<String, User> mapUserByName)
+    {
+        String[] strFieldArr = strLine.split(",", -1);  // Keep empty trailing fields (no preferences)
+
+        if (strFieldArr.length >= 6 && strFieldArr[0].equals(strRegisterTag))  // More than 6: legacy unescaped commas
+        {
+            User user = FileUtils.parseUserFields(strFieldArr, 1);
+
+            if (mapUserByName.putIfAbsent(user.getStrUsername(), user) == null)  // Already in the snapshot otherwise
+            {
+                userList.add(user);
+            }
+
+            return true;
+        }
+
+        if (strFieldArr.length == 3 && strFieldArr[0].equals(strPasswordTag))
+        {
+            User user = mapUserByName.get(FileUtils.unescapeField(strFieldArr[1]));
+
+            if (user != null)
+            {
+                user.setStrPassword(FileUtils.unescapeField(strFieldArr[2]));
+            }
+
+            return true;
+        }
+
+        return false;  // Torn or malformed line
+    }
+
+
+    /**
+     * Returns a frozen row unchanged
+     * @param strRow - the users.csv row
+     * @return - the same row
+     */
+    @Override
+    protected String formatRow(String strRow)
+    {
+        return strRow;
+    }
+}